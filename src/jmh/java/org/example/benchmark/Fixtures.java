@@ -0,0 +1,52 @@
+package org.example.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Loads the synthetic fixtures checked in under {@code src/jmh/resources/fixtures}.
+ */
+public final class Fixtures {
+
+    /**
+     * JVM argument quieting the framework's logging in the forked benchmark JVMs.
+     */
+    public static final String LOG_CONFIG = "-Dlog4j2.configurationFile=log4j2-benchmark.xml";
+
+    private Fixtures() {}
+
+    public static String read(String name) {
+        try (InputStream fixture = open(name)) {
+            return new String(fixture.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Copies the fixture to a temporary file, for code that reads from a path. The copy is deleted on exit.
+     */
+    public static Path copyToTempFile(String name) {
+        try (InputStream fixture = open(name)) {
+            Path copy = Files.createTempFile("fixture", "-" + name);
+            copy.toFile().deleteOnExit();
+            Files.copy(fixture, copy, StandardCopyOption.REPLACE_EXISTING);
+            return copy;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static InputStream open(String name) {
+        InputStream fixture = Fixtures.class.getResourceAsStream("/fixtures/" + name);
+        if (fixture == null) {
+            throw new IllegalArgumentException("fixture not found: " + name);
+        }
+        return fixture;
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.dataprovider;
+
+import org.example.benchmark.Fixtures;
+import org.example.template.RequestTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Url building with a growing number of query params, whose values need encoding, against rendering the url of a row
+ * whose every param value holds a {@code ${seq}} placeholder from its compiled template.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = Fixtures.LOG_CONFIG)
+public class ComputeUrlBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int paramCount;
+
+    private final Map<String, String> params = new LinkedHashMap<>();
+    private RequestTemplate requestTemplate;
+
+    @Setup
+    public void setUp() {
+        Map<String, String> templatedParams = new LinkedHashMap<>();
+        for (int i = 0; i < paramCount; i++) {
+            params.put("param" + i, "value " + i + " & more/" + i);
+            templatedParams.put("param" + i, "value ${seq} & more/" + i);
+        }
+        requestTemplate = RequestTemplate.compile(HttpMethod.GET, "/comments", templatedParams, new HttpHeaders(),
+                null, (apiPath, urlParams) -> TestDataFactory.computeUrl("https://jsonplaceholder.typicode.com",
+                        apiPath, urlParams));
+    }
+
+    @Benchmark
+    public String computeUrl() {
+        return TestDataFactory.computeUrl("https://jsonplaceholder.typicode.com", "/comments", params);
+    }
+
+    @Benchmark
+    public String renderTemplatedUrl() {
+        return requestTemplate.render().getUrl();
+    }
+}
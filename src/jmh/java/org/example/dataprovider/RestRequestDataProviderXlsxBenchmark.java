@@ -0,0 +1,59 @@
+package org.example.dataprovider;
+
+import org.example.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of a 1,000 row workbook into test parameters, so the score is the time per 1k rows. Runs on a copy of the
+ * fixture, next to which the snapshot is written. With {@code snapshot}, every invocation after the first reads the
+ * rows from that snapshot instead of the workbook.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = Fixtures.LOG_CONFIG)
+public class RestRequestDataProviderXlsxBenchmark {
+
+    @Param({"false", "true"})
+    private boolean streaming;
+
+    @Param({"false", "true"})
+    private boolean snapshot;
+
+    private final RestRequestDataProviderXlsx dataProvider = new RestRequestDataProviderXlsx();
+
+    @Setup
+    public void setUp() {
+        Path workbook = Fixtures.copyToTempFile("workbook-1k.xlsx");
+        new File(workbook + ".snapshot.jsonl").deleteOnExit();
+        System.setProperty("dataProvider", workbook.toString());
+        System.setProperty("xlsx_streaming", String.valueOf(streaming));
+        System.setProperty("workbook_snapshot", String.valueOf(snapshot));
+    }
+
+    @Benchmark
+    public void parseRows(Blackhole blackhole) {
+        Iterator<Object[]> rows = dataProvider.provideData();
+        while (rows.hasNext()) {
+            blackhole.consume(rows.next());
+        }
+    }
+}
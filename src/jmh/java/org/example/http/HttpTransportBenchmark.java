@@ -0,0 +1,143 @@
+package org.example.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exchanges through each {@link HttpTransport} by 8 threads at once, the response body parsed like the blocking runner
+ * does, at several payload sizes, gzip compressed or not. The local server speaks HTTP/1.1 only, so it compares the
+ * transports and the cost of compression; to compare HTTP/2 multiplexing, point {@code url} at an HTTP/2 server serving
+ * JSON, e.g. {@code -p url=https://host/large.json}, in which case {@code payload} and {@code compressed} are ignored.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = Fixtures.LOG_CONFIG)
+@Threads(8)
+public class HttpTransportBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Param({"spring", "jdk"})
+    private String transport;
+
+    @Param({"payload-10.json", "payload-1000.json"})
+    private String payload;
+
+    @Param({"false", "true"})
+    private boolean compressed;
+
+    @Param({""})
+    private String url;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private HttpTransport httpTransport;
+    private String target;
+    private HttpEntity<String> request;
+
+    @Setup
+    public void setUp() throws IOException {
+        target = url;
+        if (target.isEmpty()) {
+            startServer();
+        }
+        httpTransport = transport.equals("jdk") ? new JdkHttpTransport() : new SpringHttpTransport();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        request = new HttpEntity<>(headers);
+    }
+
+    @TearDown
+    public void tearDown() {
+        httpTransport.close();
+        if (server != null) {
+            server.stop(0);
+            serverExecutor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public JsonNode exchange() {
+        return httpTransport.exchange(target, HttpMethod.GET, request, OBJECT_MAPPER::readTree).getBody();
+    }
+
+    private void startServer() throws IOException {
+        // Without it the server holds the body back behind its headers until the client acknowledges them, ~40 ms
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        byte[] plain = Fixtures.read(payload).getBytes(StandardCharsets.UTF_8);
+        byte[] gzipped = gzip(plain);
+        serverExecutor = Executors.newFixedThreadPool(8, runnable -> {
+            Thread thread = new Thread(runnable, "benchmark-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 64);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> respond(exchange, plain, gzipped));
+        server.start();
+        target = "http://127.0.0.1:" + server.getAddress().getPort() + "/payload";
+    }
+
+    private void respond(HttpExchange exchange, byte[] plain, byte[] gzipped) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            boolean gzip = compressed && acceptEncoding != null && acceptEncoding.contains("gzip");
+            byte[] body = gzip ? gzipped : plain;
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            if (gzip) {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return gzipped.toByteArray();
+    }
+}
@@ -0,0 +1,175 @@
+package org.example.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.example.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging overhead per passing test, on the test thread, for a test exchanging a 100 element payload: the formatted
+ * lines previously logged as one synchronous event, against the structured {@link TestLog} record logged through
+ * synchronous and asynchronous loggers. The logs are written to {@code target/benchmark-logs}.
+ * <p>
+ * Each operation first spins for {@code exchangeMicros}, standing in for the exchange of the test, so that the score
+ * minus {@code exchangeMicros} is the overhead per test. Without it, records are logged back to back and the
+ * asynchronous logger is measured at the speed of its background thread once the ring buffer is full.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TestLogBenchmark {
+
+    private static final String SYNC_LOG_CONFIG = "-Dlog4j2.configurationFile=log4j2-benchmark-sync.xml";
+    private static final String ASYNC_LOG_CONFIG = "-Dlog4j2.configurationFile=log4j2-benchmark-async.xml";
+    private static final Logger LOG = LogManager.getLogger(TestLog.class);
+
+    @Param({"0", "500"})
+    private long exchangeMicros;
+
+    private final HttpHeaders requestHeaders = new HttpHeaders();
+    private final HttpHeaders responseHeaders = new HttpHeaders();
+    private final Map<String, String> params = Map.of("postId", "1");
+    private final String url = "https://jsonplaceholder.typicode.com/comments?postId=1";
+    private String expectedBody;
+    private JsonNode actualBody;
+    private ITestResult result;
+
+    @Setup
+    public void setUp() throws IOException {
+        requestHeaders.add("Content-Type", "application/json");
+        responseHeaders.add("Content-Type", "application/json; charset=utf-8");
+        responseHeaders.add("Cache-Control", "max-age=43200");
+        expectedBody = Fixtures.read("payload-100.json");
+        actualBody = new ObjectMapper().readTree(expectedBody);
+        result = passingResult();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = SYNC_LOG_CONFIG)
+    public void formattedLinesSync() {
+        exchange();
+        StringBuilder event = new StringBuilder();
+        appendLine(event, "*********************************** Starting Test : TC2***********************************");
+        appendLine(event, "http method is: {}", HttpMethod.GET);
+        appendLine(event, "headers is: {}", requestHeaders);
+        appendLine(event, "params is: {}", params);
+        appendLine(event, "url is: {}", url);
+        appendLine(event, "request body is: {}", "{}");
+        appendLine(event, "expected response code is: {}", 200);
+        appendLine(event, "actual response code is: {}", 200);
+        appendLine(event, "headers in actual response is: {}", responseHeaders);
+        appendLine(event, "expected response body is: {}", expectedBody);
+        appendLine(event, "actual response body is: {}", actualBody.toString());
+        appendLine(event, "*********************************** Test Case Result: PASS ***********************************");
+        appendLine(event, "*********************************** Ending Test ***********************************");
+        LOG.info(event.toString().trim());
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = SYNC_LOG_CONFIG)
+    public void recordSync() {
+        exchange();
+        logRecord();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = ASYNC_LOG_CONFIG)
+    public void recordAsync() {
+        exchange();
+        logRecord();
+    }
+
+    private void logRecord() {
+        TestLog.start(result);
+        Reporter.setCurrentTestResult(result);
+        TestLog.field("id", "TC2");
+        TestLog.field("httpMethod", HttpMethod.GET);
+        TestLog.field("headers", requestHeaders);
+        TestLog.field("params", params);
+        TestLog.field("url", url);
+        TestLog.field("requestBody", "{}");
+        TestLog.field("actualResponseBytes", expectedBody.length());
+        TestLog.field("expectedResponseCode", 200);
+        TestLog.field("actualResponseCode", 200);
+        TestLog.field("actualResponseHeaders", responseHeaders);
+        TestLog.field("expectedResponseBody", expectedBody);
+        TestLog.flush(result, Level.INFO, "PASS");
+        Reporter.setCurrentTestResult(null);
+    }
+
+    private void exchange() {
+        long end = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(exchangeMicros);
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void appendLine(StringBuilder event, String message, Object... params) {
+        event.append(System.lineSeparator()).append(ParameterizedMessage.format(message, params));
+    }
+
+    /**
+     * A passing result of a test method, holding the attributes the listener sets.
+     */
+    private static ITestResult passingResult() {
+        ITestNGMethod method = proxy(ITestNGMethod.class, Map.of("getQualifiedName", "org.example.TestRunner.runTest"));
+        Map<String, Object> attributes = new HashMap<>();
+        return proxy(ITestResult.class, (name, args) -> {
+            switch (name) {
+                case "getMethod":
+                    return method;
+                case "getStatus":
+                    return ITestResult.SUCCESS;
+                case "setAttribute":
+                    return attributes.put((String) args[0], args[1]);
+                case "getAttribute":
+                    return attributes.get(args[0]);
+                case "removeAttribute":
+                    return attributes.remove(args[0]);
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, Map<String, Object> values) {
+        return proxy(type, (name, args) -> values.get(name));
+    }
+
+    private static <T> T proxy(Class<T> type, Answer answer) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (instance, method, args) -> answer.answer(method.getName(), args)));
+    }
+
+    @FunctionalInterface
+    private interface Answer {
+        Object answer(String methodName, Object[] args);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.responsehandler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LENIENT comparison of an expected and an actual payload holding an array of {@code arrayLength} objects. With
+ * {@code reordered}, the expected elements are in reverse order, so every element has to be matched regardless of its
+ * position. The expected payload is compiled once, as the data provider does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = Fixtures.LOG_CONFIG)
+public class JsonResponseValidatorBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int arrayLength;
+
+    @Param({"false", "true"})
+    private boolean reordered;
+
+    private final JsonResponseValidator validator = new JsonResponseValidator();
+    private JsonNode expectedResponse;
+    private String actualBody;
+
+    @Setup
+    public void setUp() throws IOException {
+        actualBody = Fixtures.read("payload-" + arrayLength + ".json");
+        String expectedBody = actualBody;
+        if (reordered) {
+            ObjectMapper objectMapper = new ObjectMapper();
+            ObjectNode payload = (ObjectNode) objectMapper.readTree(actualBody);
+            ArrayNode reversed = objectMapper.createArrayNode();
+            for (JsonNode element : payload.get("items")) {
+                reversed.insert(0, element);
+            }
+            payload.set("items", reversed);
+            expectedBody = objectMapper.writeValueAsString(payload);
+        }
+        expectedResponse = validator.compileExpectedResponse(expectedBody);
+    }
+
+    @Benchmark
+    public void compareLenient() {
+        validator.validateResponse(actualBody, expectedResponse, 200, 200);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.responsehandler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jackson.JsonLoader;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import org.example.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schema validation of a payload holding an array of {@code arrayLength} objects against its own schema: the full preparation of the
+ * schema by the given {@code generator} followed by the validation, and the validation through the
+ * {@link SchemaValidator} against the schema compiled once, as the data provider does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = Fixtures.LOG_CONFIG)
+public class SchemaValidatorBenchmark {
+
+    private static final JsonSchemaFactory SCHEMA_FACTORY = JsonSchemaFactory.byDefault();
+
+    @Param({"10", "100", "1000"})
+    private int arrayLength;
+
+    @Param({"inference", "pojo"})
+    private String generator;
+
+    private final SchemaValidator validator = new SchemaValidator();
+    private String body;
+    private SchemaCache.CachedSchema expectedSchema;
+
+    @Setup
+    public void setUp() {
+        System.setProperty("schema_generator", generator);
+        body = Fixtures.read("payload-" + arrayLength + ".json");
+        expectedSchema = validator.compileExpectedResponse(body);
+    }
+
+    @Benchmark
+    public ProcessingReport prepareAndValidate() throws Exception {
+        JsonNode schema = "pojo".equals(generator)
+                ? JsonLoader.fromString(new PojoSchemaGenerator().generateSchema(body))
+                : SchemaInferer.inferSchema(JsonLoader.fromString(body));
+        return SCHEMA_FACTORY.getJsonSchema(schema).validateUnchecked(JsonLoader.fromString(body), true);
+    }
+
+    @Benchmark
+    public void validateCompiled() {
+        validator.validateResponse(body, expectedSchema, 200, 200);
+    }
+}
@@ -0,0 +1,180 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.chain.DependencyGraph;
+import org.example.databean.TestData;
+import org.example.dataprovider.RestRequestDataProvider;
+import org.example.http.AsyncRequestEngine;
+import org.example.http.AsyncRequestEngine.AsyncResponse;
+import org.example.http.EndpointLimiter;
+import org.example.http.JsonBodySubscriber;
+import org.example.listener.TestLog;
+import org.example.template.RequestTemplate.RenderedRequest;
+import org.example.util.ConfigReaderUtil;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Runs the rows of the rest request data provider through the {@link AsyncRequestEngine}.
+ * <p>
+ * Rows are sent ahead of the tests that report them, keeping up to {@code async_max_in_flight} requests on the wire,
+ * and each response is validated as soon as it arrives. Every row is still reported as its own TestNG test, which
+ * waits for the outcome of its request. Like in the blocking runner, response bodies are parsed from the stream with
+ * the {@code response_max_body_bytes} cap and only logged for failing tests.
+ * <p>
+ * Rows are sent in the order of their {@link DependencyGraph}: a row without dependencies is sent straight away, and a
+ * row with dependencies is rendered and sent the moment they have all passed, so that chained rows wait only for
+ * their own dependencies and everything else runs concurrently. A row whose dependency did not pass is skipped.
+ */
+public class AsyncTestRunner {
+
+    private AsyncRequestEngine engine;
+
+    @DataProvider(name = "asyncRestRequestDataProvider")
+    public Iterator<Object[]> provideData() {
+        int maxInFlight = ConfigReaderUtil.getIntConfig("async_max_in_flight", 64);
+        engine = new AsyncRequestEngine(maxInFlight);
+        DependencyGraph graph = DependencyGraph.build(loadRows());
+        Iterator<TestData> rows = graph.getSortedRows().iterator();
+        // Completes with each row other rows depend on, without holding on to its response
+        Map<String, CompletableFuture<Void>> completions = new HashMap<>();
+        Deque<Object[]> sentRows = new ArrayDeque<>();
+
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                sendAhead();
+                return !sentRows.isEmpty();
+            }
+
+            @Override
+            public Object[] next() {
+                sendAhead();
+                return sentRows.remove();
+            }
+
+            // Keeps twice as many rows sent as can be in flight, so the engine never waits for the tests to catch up
+            private void sendAhead() {
+                while (sentRows.size() < 2 * maxInFlight && rows.hasNext()) {
+                    TestData testData = rows.next();
+                    // Rendered once the dependencies have completed, as it may read the variables they extract
+                    CompletableFuture<RenderedRequest> request = afterDependencies(testData, completions)
+                            .thenApply(ignored -> testData.render());
+                    CompletableFuture<AsyncResponse<JsonNode>> response = request.thenCompose(
+                            renderedRequest -> send(testData, renderedRequest));
+                    CompletableFuture<AsyncResponse<JsonNode>> validatedResponse = response.thenApply(
+                            receivedResponse -> validate(testData, receivedResponse));
+                    if (graph.isDependedOn(testData.getId())) {
+                        completions.put(testData.getId(), validatedResponse.thenApply(ignored -> null));
+                    }
+                    sentRows.add(new Object[]{testData.getId(), testData, request, response, validatedResponse});
+                }
+            }
+        };
+    }
+
+    @Test(dataProvider = "asyncRestRequestDataProvider")
+    public void runTest(String id, TestData testData, CompletableFuture<RenderedRequest> request,
+                        CompletableFuture<AsyncResponse<JsonNode>> receivedResponse,
+                        CompletableFuture<AsyncResponse<JsonNode>> validatedResponse) {
+        TestLog.field("id", id);
+        try {
+            TestLog.field("url", request.join().getUrl());
+            TestLog.field("expectedResponseCode", testData.getExpectedResponseCode());
+            AsyncResponse<JsonNode> response = validatedResponse.join();
+            TestLog.field("actualResponseCode", response.getStatusCode());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SkipException) {
+                throw (SkipException) e.getCause();
+            }
+            if (e.getCause() instanceof AssertionError) {
+                // The body is only rendered for failing tests, passing ones never hold it as text
+                AsyncResponse<JsonNode> response = receivedResponse.join();
+                TestLog.field("actualResponseCode", response.getStatusCode());
+                TestLog.field("actualResponseBody", response.getBody());
+                throw (AssertionError) e.getCause();
+            }
+            TestLog.error("Exception occurred when running test");
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void closeEngine() {
+        if (engine != null) {
+            engine.close();
+        }
+    }
+
+    /**
+     * Loads every row up front, as a row may depend on any other.
+     */
+    private List<TestData> loadRows() {
+        List<TestData> rows = new ArrayList<>();
+        Iterator<Object[]> parameters = new RestRequestDataProvider().provideRows();
+        while (parameters.hasNext()) {
+            rows.add((TestData) parameters.next()[1]);
+        }
+        return rows;
+    }
+
+    /**
+     * Returns a future completed once every dependency of the row has passed, or with a {@link SkipException} naming
+     * the first one that did not.
+     */
+    private static CompletableFuture<Void> afterDependencies(TestData testData,
+                                                             Map<String, CompletableFuture<Void>> completions) {
+        List<String> dependsOn = testData.getDependsOn();
+        if (dependsOn.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<?>[] dependencies = dependsOn.stream().map(completions::get)
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(dependencies).handle((ignored, throwable) -> {
+            if (throwable != null) {
+                for (int i = 0; i < dependencies.length; i++) {
+                    if (dependencies[i].isCompletedExceptionally()) {
+                        throw new SkipException(String.format("dependency %s of row %s did not pass",
+                                dependsOn.get(i), testData.getId()));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Sends the request rendered from the row, parsing the body of its response while it arrives and failing once it
+     * grows past {@code response_max_body_bytes}, the same way as the blocking {@link TestRunner}.
+     */
+    private CompletableFuture<AsyncResponse<JsonNode>> send(TestData testData, RenderedRequest request) {
+        int maxBodyBytes = ConfigReaderUtil.getIntConfig("response_max_body_bytes", 0);
+        return engine.send(EndpointLimiter.forEndpoint(testData.getEndPointKey()), request.getUrl(),
+                testData.getHttpMethod(), request.getRequest(), JsonBodySubscriber.parsing(maxBodyBytes));
+    }
+
+    /**
+     * Validates the response as soon as it arrives, then extracts the variables of the row from it.
+     */
+    private static AsyncResponse<JsonNode> validate(TestData testData, AsyncResponse<JsonNode> response) {
+        if (response.getBody() == null || response.getBody().isMissingNode()) {
+            Assert.fail("Actual response doesn't have a body");
+        }
+        testData.getExpectedResponse().validate(response.getBody(), response.getStatusCode());
+        testData.getExtractions().extract(response.getBody());
+        return response;
+    }
+}
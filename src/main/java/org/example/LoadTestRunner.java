@@ -0,0 +1,121 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.log4j.Log4j2;
+import org.example.databean.TestData;
+import org.example.dataprovider.RestRequestDataProvider;
+import org.example.http.AsyncRequestEngine;
+import org.example.http.AsyncRequestEngine.AsyncResponse;
+import org.example.http.EndpointLimiter;
+import org.example.http.JsonBodySubscriber;
+import org.example.load.LoadReport;
+import org.example.template.RequestTemplate.RenderedRequest;
+import org.example.util.ConfigReaderUtil;
+import org.springframework.http.HttpStatus;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays the rows of the rest request data provider as a load test.
+ * <p>
+ * Requests are started at a fixed arrival rate of {@code load_target_rps}, cycling through the rows, for
+ * {@code load_duration_seconds} or, when {@code load_iterations} is set, until every row has been sent that many times.
+ * Each latency is measured from the time the request was scheduled to start rather than from the time it was actually
+ * sent, so a slow server cannot hide its queueing delay (no coordinated omission). A {@code load_validation_sample_rate}
+ * share of the responses is also validated like in a functional run. Every request renders the next variant of its
+ * row, so placeholders such as {@code ${seq}} or {@code ${uuid}} make each request distinct.
+ */
+@Log4j2
+public class LoadTestRunner {
+
+    @Test
+    public void runLoad() throws InterruptedException {
+        List<TestData> rows = loadRows();
+        double targetRps = Double.parseDouble(ConfigReaderUtil.getConfig("load_target_rps", "10"));
+        int iterations = ConfigReaderUtil.getIntConfig("load_iterations", 0);
+        long durationSeconds = ConfigReaderUtil.getIntConfig("load_duration_seconds", 60);
+        double validationSampleRate = Double.parseDouble(ConfigReaderUtil.getConfig("load_validation_sample_rate", "0"));
+
+        long totalRequests = iterations > 0 ? (long) iterations * rows.size() : (long) (durationSeconds * targetRps);
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / targetRps);
+        log.info("Sending {} requests at {} requests per second over {} rows", totalRequests, targetRps, rows.size());
+
+        int maxBodyBytes = ConfigReaderUtil.getIntConfig("response_max_body_bytes", 0);
+        LoadReport report = new LoadReport();
+        CountDownLatch completedRequests = new CountDownLatch((int) Math.min(totalRequests, Integer.MAX_VALUE));
+        long start;
+        try (AsyncRequestEngine engine = new AsyncRequestEngine(ConfigReaderUtil.getIntConfig("load_max_in_flight", 256))) {
+            start = System.nanoTime();
+            for (long i = 0; i < totalRequests; i++) {
+                long intendedStart = start + i * intervalNanos;
+                waitUntil(intendedStart);
+                TestData testData = rows.get((int) (i % rows.size()));
+                boolean validate = ThreadLocalRandom.current().nextDouble() < validationSampleRate;
+                RenderedRequest request = testData.render();
+                engine.send(EndpointLimiter.forEndpoint(testData.getEndPointKey()), request.getUrl(),
+                        testData.getHttpMethod(), request.getRequest(), validate
+                                ? JsonBodySubscriber.parsing(maxBodyBytes)
+                                : JsonBodySubscriber.discarding(maxBodyBytes))
+                        .whenComplete((response, throwable) -> {
+                            long latencyNanos = System.nanoTime() - intendedStart;
+                            boolean failed = throwable != null || !isValid(testData, response, validate);
+                            report.record(testData.getId(), latencyNanos, failed);
+                            completedRequests.countDown();
+                        });
+            }
+            completedRequests.await();
+        }
+
+        report.write(System.nanoTime() - start,
+                new File(ConfigReaderUtil.getConfig("load_report_file", "target/load-report.json")));
+        double maxErrorRate = Double.parseDouble(ConfigReaderUtil.getConfig("load_max_error_rate", "1"));
+        Assert.assertTrue(report.getErrorRate() <= maxErrorRate, String.format("error rate %.4f exceeds %.4f",
+                report.getErrorRate(), maxErrorRate));
+    }
+
+    /**
+     * Loads the compiled rows once; every request of the run is rendered from their request template and reuses their
+     * expected response.
+     */
+    private List<TestData> loadRows() {
+        List<TestData> rows = new ArrayList<>();
+        Iterator<Object[]> parameters = new RestRequestDataProvider().provideRows();
+        while (parameters.hasNext()) {
+            rows.add((TestData) parameters.next()[1]);
+        }
+        Assert.assertFalse(rows.isEmpty(), "no rows to replay");
+        return rows;
+    }
+
+    private boolean isValid(TestData testData, AsyncResponse<JsonNode> response, boolean validate) {
+        HttpStatus status = HttpStatus.resolve(response.getStatusCode());
+        if (status == null || status.isError()) {
+            return false;
+        }
+        if (!validate) {
+            return true;
+        }
+        try {
+            testData.getExpectedResponse().validate(response.getBody(), response.getStatusCode());
+            return true;
+        } catch (AssertionError | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static void waitUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
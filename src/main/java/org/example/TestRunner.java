@@ -1,71 +1,133 @@
 package org.example;
 
-import lombok.extern.log4j.Log4j2;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.chain.DependencyOrder;
 import org.example.databean.TestData;
-import org.example.dataprovider.RestRequestDataProviderXlsx;
-import org.example.responsehandler.AbstractResponseValidator;
-import org.example.responsehandler.ResponseValidatorFactory;
+import org.example.dataprovider.RestRequestDataProvider;
+import org.example.http.EndpointLimiter;
+import org.example.http.HttpTransports;
+import org.example.http.SizeLimitedInputStream;
+import org.example.listener.PhaseTimings;
+import org.example.listener.TestLog;
+import org.example.template.RequestTemplate.RenderedRequest;
+import org.example.util.ConfigReaderUtil;
 import org.springframework.http.*;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 
-import java.util.Map;
+import java.util.function.IntConsumer;
 
-import static org.example.Constants.SCHEMA;
-
-@Log4j2
 public class TestRunner
 {
-    @Test(dataProvider = "restRequestDataProvider", dataProviderClass = RestRequestDataProviderXlsx.class)
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test(dataProvider = "restRequestDataProvider", dataProviderClass = RestRequestDataProvider.class)
     public void runTest(String id, TestData testData) {
+        DependencyOrder dependencyOrder = DependencyOrder.get(Reporter.getCurrentTestResult().getTestContext());
+        boolean passed = false;
         try {
-            log.info("*********************************** Starting Test : " + id + "***********************************");
+            TestLog.field("id", id);
+            if (testData.isCached()) {
+                // Passed before with this content, see IncrementalRun
+                TestLog.field("cached", true);
+                passed = true;
+                return;
+            }
+            if (dependencyOrder != null) {
+                // Rendered once the dependencies have finished, as it may read the variables they extract
+                long phaseStart = System.nanoTime();
+                try {
+                    dependencyOrder.awaitDependencies(testData);
+                } finally {
+                    PhaseTimings.record("dependencyWait", phaseStart);
+                }
+            }
             HttpMethod httpMethod = testData.getHttpMethod();
-            log.info("http method is: {}", httpMethod);
-            HttpHeaders httpHeaders = testData.getHttpHeaders();
-            log.info("headers is: {}", httpHeaders);
-            Map<String, String> params = testData.getParams();
-            log.info("params is: {}", params);
-            String url = computeAndLogComputedUrl(testData.getEndPoint(), testData.getApiPath(), params);
-            String requestBody = testData.getRequestBody();
-            log.info("request body is: {}", requestBody);
-            HttpEntity<String> request = buildRequest(httpMethod, httpHeaders, requestBody);
-            ResponseEntity<String> response = fire(url, httpMethod, request);
-            int expectedResponseCode = testData.getExpectedResponseCode();
-            log.info("expected response code is: {}", expectedResponseCode);
+            TestLog.field("httpMethod", httpMethod);
+            RenderedRequest request = testData.render();
+            if (request.getSeq() > 0) {
+                TestLog.field("seq", request.getSeq());
+            }
+            TestLog.field("headers", request.getRequest().getHeaders());
+            TestLog.field("params", testData.getParams());
+            String url = request.getUrl();
+            TestLog.field("url", url);
+            TestLog.field("requestBody", request.getRequest().getBody());
+            long phaseStart = System.nanoTime();
+            EndpointLimiter.Permit permit = EndpointLimiter.forEndpoint(testData.getEndPointKey()).acquire().join();
+            PhaseTimings.record("limiterQueue", phaseStart);
+            phaseStart = System.nanoTime();
+            ResponseEntity<JsonNode> response;
+            try {
+                // Released with the status once the headers arrive, before the body is read and parsed
+                response = fire(url, httpMethod, request.getRequest(), permit::release);
+            } catch (RuntimeException e) {
+                // Ignored when the headers arrived, so that only the exchanges without a response count as failed
+                permit.release(EndpointLimiter.statusOf(e));
+                throw e;
+            } finally {
+                PhaseTimings.record("exchange", phaseStart);
+            }
+            TestLog.field("expectedResponseCode", testData.getExpectedResponseCode());
             int actualResponseCode = response.getStatusCodeValue();
-            log.info("actual response code is: {}", actualResponseCode);
-            httpHeaders = response.getHeaders();
-            log.info("headers in actual response is: {}", httpHeaders);
-            String expectedResponseBody = testData.getExpectedResponseBody();
-            log.info("expected response body is: {}", expectedResponseBody);
-            String actualResponseBody = validateAndGetActualResponseBody(response);
-            log.info("actual response body is: {}", actualResponseBody);
-            boolean isSchemaValidation = testData.getTestCaseId().equalsIgnoreCase(SCHEMA);
-            AbstractResponseValidator responseValidator = ResponseValidatorFactory.getInstance(isSchemaValidation);
-            responseValidator.validateResponse(actualResponseBody, expectedResponseBody,
-                    actualResponseCode, expectedResponseCode);
+            TestLog.field("actualResponseCode", actualResponseCode);
+            TestLog.field("actualResponseHeaders", response.getHeaders());
+            TestLog.field("expectedResponseBody", testData.getExpectedResponseBody());
+            JsonNode actualResponseBody = validateAndGetActualResponseBody(response);
+            phaseStart = System.nanoTime();
+            try {
+                testData.getExpectedResponse().validate(actualResponseBody, actualResponseCode);
+            } catch (AssertionError | RuntimeException e) {
+                // The body is only rendered for failing tests, passing ones never hold it as text
+                TestLog.field("actualResponseBody", actualResponseBody);
+                throw e;
+            } finally {
+                PhaseTimings.record("validate", phaseStart);
+            }
+            testData.getExtractions().extract(actualResponseBody);
+            passed = true;
+        } catch (SkipException e) {
+            throw e;
         } catch (Exception e) {
             String msg = "Exception occurred when running test";
             logAndThrowRunTimeException(msg, e);
+        } finally {
+            if (dependencyOrder != null) {
+                dependencyOrder.finish(id, passed);
+            }
         }
     }
 
-    private String validateAndGetActualResponseBody(ResponseEntity<String> response) {
-        if (!response.hasBody()) {
+    private JsonNode validateAndGetActualResponseBody(ResponseEntity<JsonNode> response) {
+        if (!response.hasBody() || response.getBody().isMissingNode()) {
             Assert.fail("Actual response doesn't have a body");
         }
         return response.getBody();
     }
 
 
-    private ResponseEntity<String> fire(String url, HttpMethod httpMethod, HttpEntity<String> request) {
+    /**
+     * Fires the request through the {@link HttpTransports transport} of the suite and parses the response body straight
+     * from the response stream, failing once it grows past {@code response_max_body_bytes}.
+     */
+    private ResponseEntity<JsonNode> fire(String url, HttpMethod httpMethod, HttpEntity<String> request,
+                                          IntConsumer onStatus) {
         try {
-            RestTemplate restTemplate = new RestTemplate();
-            return restTemplate.exchange(url, httpMethod, request, String.class);
+            int maxBodyBytes = ConfigReaderUtil.getIntConfig("response_max_body_bytes", 0);
+            return HttpTransports.get().exchange(url, httpMethod, request, onStatus, responseBody -> {
+                long phaseStart = System.nanoTime();
+                try (SizeLimitedInputStream body = new SizeLimitedInputStream(responseBody, maxBodyBytes)) {
+                    JsonNode actualResponseBody = OBJECT_MAPPER.readTree(body);
+                    TestLog.field("actualResponseBytes", body.getBytesRead());
+                    return actualResponseBody;
+                } finally {
+                    PhaseTimings.record("extractBody", phaseStart);
+                }
+            });
         } catch (RestClientException e) {
             String msg = "Exception occurred when firing request";
             logAndThrowRunTimeException(msg, e);
@@ -75,24 +137,7 @@ public class TestRunner
     }
 
     private void logAndThrowRunTimeException(String msg, Exception e) {
-        log.error(msg);
+        TestLog.error(msg);
         throw new RuntimeException(e);
     }
-
-    private HttpEntity<String> buildRequest(HttpMethod httpMethod, HttpHeaders httpHeaders, String requestBody) {
-        return (httpMethod == HttpMethod.GET)
-                ? new HttpEntity<>(httpHeaders)
-                : new HttpEntity<>(requestBody, httpHeaders);
-    }
-
-    private String computeAndLogComputedUrl(String endPoint, String apiPath, Map<String, String> params) {
-        String url = endPoint + apiPath;
-        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(url);
-        for (Map.Entry<String, String> entry : params.entrySet()) {
-            builder.queryParam(entry.getKey(), entry.getValue());
-        }
-        url = builder.toUriString();
-        log.info("url is: {}", url);
-        return url;
-    }
 }
@@ -0,0 +1,95 @@
+package org.example.chain;
+
+import org.example.databean.TestData;
+import org.example.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The graph of the rows of a suite and the rows they depend on, through their {@code depends_on} column.
+ * <p>
+ * The rows are sorted in their {@link DependencyOrder}, so that every row comes after its dependencies and otherwise
+ * keeps its place in the data provider, and a runner sending them in this order always has the dependencies of a row
+ * already sent and can start it the moment they complete.
+ */
+public final class DependencyGraph {
+
+    private final List<TestData> sortedRows;
+    private final Set<String> dependedOn;
+
+    private DependencyGraph(List<TestData> sortedRows, Set<String> dependedOn) {
+        this.sortedRows = sortedRows;
+        this.dependedOn = dependedOn;
+    }
+
+    /**
+     * @throws ValidationException when a row depends on an unknown or duplicated id, or on itself through a cycle
+     */
+    public static DependencyGraph build(List<TestData> rows) {
+        Set<String> dependedOn = new HashSet<>();
+        rows.forEach(row -> dependedOn.addAll(row.getDependsOn()));
+        if (dependedOn.isEmpty()) {
+            return new DependencyGraph(rows, dependedOn);
+        }
+
+        List<TestData> sortedRows = new ArrayList<>(rows.size());
+        new DependencyOrder(rows.stream().map(row -> new Object[]{row.getId(), row}).iterator())
+                .forEachRemaining(row -> sortedRows.add((TestData) row[1]));
+        return new DependencyGraph(Collections.unmodifiableList(sortedRows), dependedOn);
+    }
+
+    /**
+     * Returns the rows, each after its dependencies.
+     */
+    public List<TestData> getSortedRows() {
+        return sortedRows;
+    }
+
+    public boolean isDependedOn(String id) {
+        return dependedOn.contains(id);
+    }
+
+    /**
+     * Returns the group of every row, keyed by the id of the first row of the rows chained through their
+     * dependencies.
+     */
+    public static List<String> groupKeys(List<TestData> rows) {
+        Map<String, String> parents = new HashMap<>();
+        for (TestData row : rows) {
+            parents.putIfAbsent(row.getId(), row.getId());
+        }
+        for (TestData row : rows) {
+            for (String dependency : row.getDependsOn()) {
+                if (parents.containsKey(dependency)) {
+                    parents.put(root(parents, dependency), root(parents, row.getId()));
+                }
+            }
+        }
+        Map<String, String> keysByRoot = new HashMap<>();
+        List<String> groupKeys = new ArrayList<>(rows.size());
+        for (TestData row : rows) {
+            groupKeys.add(keysByRoot.computeIfAbsent(root(parents, row.getId()), root -> row.getId()));
+        }
+        return groupKeys;
+    }
+
+    private static String root(Map<String, String> parents, String id) {
+        String root = id;
+        while (!parents.get(root).equals(root)) {
+            root = parents.get(root);
+        }
+        // Path compression keeps the lookups short on long chains
+        String next;
+        while (!(next = parents.get(id)).equals(root)) {
+            parents.put(id, root);
+            id = next;
+        }
+        return root;
+    }
+}
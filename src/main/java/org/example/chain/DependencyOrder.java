@@ -0,0 +1,188 @@
+package org.example.chain;
+
+import lombok.extern.log4j.Log4j2;
+import org.example.databean.TestData;
+import org.example.exception.ValidationException;
+import org.testng.ITestContext;
+import org.testng.SkipException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides the rows of the blocking runner lazily, each after the rows it depends on through its {@code depends_on}
+ * column, and tells the runner when those have finished.
+ * <p>
+ * A row is provided as soon as its dependencies have been, otherwise in the order of the data provider. Only the rows
+ * waiting for a dependency further down are held back, and only the ids of the rows provided are kept, so a streaming
+ * data provider stays streaming. A dependency on an unknown or duplicated id, or a cycle, fails the data provider once
+ * it is found, at the latest after the last row.
+ * <p>
+ * As every row is provided after its dependencies, and the threads of a parallel data provider take the rows in order,
+ * a row waiting in {@link #awaitDependencies(TestData)} only ever waits for rows already running. The order is kept
+ * in the context of its TestNG test, so that tests running at the same time each wait on their own rows.
+ * <p>
+ * The {@link DependencyGraph} of the runners that load every row up front is sorted through the same order.
+ */
+@Log4j2
+public final class DependencyOrder implements Iterator<Object[]> {
+
+    private static final String CONTEXT_ATTRIBUTE = DependencyOrder.class.getName();
+
+    private final Iterator<Object[]> rows;
+    private final Deque<Object[]> ready = new ArrayDeque<>();
+    private final Map<String, List<Object[]>> waitingRows = new HashMap<>();
+    private final Map<Object[], Integer> missingDependencies = new HashMap<>();
+    private final Set<String> providedIds = new HashSet<>();
+    private final Set<String> duplicatedIds = new HashSet<>();
+    private final Set<String> dependedOnIds = new HashSet<>();
+    private final Map<String, CompletableFuture<Boolean>> runningRows = new ConcurrentHashMap<>();
+    private final Set<String> notPassedIds = ConcurrentHashMap.newKeySet();
+
+    DependencyOrder(Iterator<Object[]> rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * Orders the rows, and keeps the order in the context of the test that runs them, for it to wait on.
+     *
+     * @param rows the id and test data of every row, as given by the data provider
+     * @param context the context of the test the rows are provided to
+     */
+    public static DependencyOrder of(Iterator<Object[]> rows, ITestContext context) {
+        DependencyOrder order = new DependencyOrder(rows);
+        context.setAttribute(CONTEXT_ATTRIBUTE, order);
+        return order;
+    }
+
+    /**
+     * Returns the order the rows of the test were provided in, or null when they were not.
+     */
+    public static DependencyOrder get(ITestContext context) {
+        return (DependencyOrder) context.getAttribute(CONTEXT_ATTRIBUTE);
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        while (ready.isEmpty() && rows.hasNext()) {
+            Object[] row = rows.next();
+            int missing = 0;
+            for (String dependency : testData(row).getDependsOn()) {
+                dependedOnIds.add(dependency);
+                if (duplicatedIds.contains(dependency)) {
+                    logAndThrowValidationException(String.format("rows depend on id %s, which is not unique",
+                            dependency));
+                }
+                if (!providedIds.contains(dependency)) {
+                    waitingRows.computeIfAbsent(dependency, id -> new ArrayList<>()).add(row);
+                    missing++;
+                }
+            }
+            if (missing == 0) {
+                ready.add(row);
+            } else {
+                missingDependencies.put(row, missing);
+            }
+        }
+        if (ready.isEmpty() && !missingDependencies.isEmpty()) {
+            throwUnresolved();
+        }
+        return !ready.isEmpty();
+    }
+
+    @Override
+    public synchronized Object[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object[] row = ready.remove();
+        String id = testData(row).getId();
+        if (!providedIds.add(id)) {
+            duplicatedIds.add(id);
+            if (dependedOnIds.contains(id)) {
+                logAndThrowValidationException(String.format("rows depend on id %s, which is not unique", id));
+            }
+        }
+        runningRows.put(id, new CompletableFuture<>());
+        // The rows released by this one go first, so that chained rows run next to each other
+        List<Object[]> released = waitingRows.remove(id);
+        if (released != null) {
+            for (int i = released.size() - 1; i >= 0; i--) {
+                Object[] waitingRow = released.get(i);
+                if (missingDependencies.merge(waitingRow, -1, Integer::sum) == 0) {
+                    missingDependencies.remove(waitingRow);
+                    ready.addFirst(waitingRow);
+                }
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Waits until every dependency of the row has finished.
+     *
+     * @throws SkipException naming the first dependency that did not pass
+     */
+    public void awaitDependencies(TestData testData) {
+        for (String dependency : testData.getDependsOn()) {
+            CompletableFuture<Boolean> running = runningRows.get(dependency);
+            boolean passed = running != null ? running.join() : !notPassedIds.contains(dependency);
+            if (!passed) {
+                throw new SkipException(String.format("dependency %s of row %s did not pass", dependency,
+                        testData.getId()));
+            }
+        }
+    }
+
+    /**
+     * Records the outcome of the row, releasing the rows waiting for it.
+     */
+    public void finish(String id, boolean passed) {
+        if (!passed) {
+            notPassedIds.add(id);
+        }
+        CompletableFuture<Boolean> running = runningRows.remove(id);
+        if (running != null) {
+            running.complete(passed);
+        }
+    }
+
+    /**
+     * Fails on the rows still waiting once every row has been read, naming an unknown id or else the cycle.
+     */
+    private void throwUnresolved() {
+        List<String> waitingIds = new ArrayList<>();
+        for (Object[] row : missingDependencies.keySet()) {
+            waitingIds.add(testData(row).getId());
+        }
+        for (Object[] row : missingDependencies.keySet()) {
+            for (String dependency : testData(row).getDependsOn()) {
+                if (!providedIds.contains(dependency) && !waitingIds.contains(dependency)) {
+                    logAndThrowValidationException(String.format("row %s depends on unknown id %s",
+                            testData(row).getId(), dependency));
+                }
+            }
+        }
+        waitingIds.sort(null);
+        logAndThrowValidationException(String.format("rows %s are in, or depend on, a dependency cycle", waitingIds));
+    }
+
+    private static TestData testData(Object[] row) {
+        return (TestData) row[1];
+    }
+
+    private static void logAndThrowValidationException(String msg) {
+        log.error(msg);
+        throw new ValidationException(msg);
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.chain;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.example.exception.ValidationException;
+import org.testng.Assert;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The values a row extracts from its response into {@link Variables}, declared as a JSON object of variable names to
+ * paths, e.g. {@code {"postId": "/id", "token": "$.auth.tokens[0]"}}. A path is either a JSON Pointer or a JSONPath
+ * of names and indices only, which is compiled into a JSON Pointer when the row is loaded.
+ */
+@Log4j2
+public final class Extractions {
+
+    public static final Extractions NONE = new Extractions(Collections.emptyMap());
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Map<String, JsonPointer> pointers;
+
+    private Extractions(Map<String, JsonPointer> pointers) {
+        this.pointers = pointers;
+    }
+
+    /**
+     * @param declaration the JSON object of variable names to paths, or blank when the row extracts nothing
+     * @throws ValidationException when the declaration or one of its paths is invalid
+     */
+    public static Extractions compile(String declaration) {
+        if (StringUtils.isBlank(declaration)) {
+            return NONE;
+        }
+        JsonNode paths = null;
+        try {
+            paths = OBJECT_MAPPER.readTree(declaration);
+        } catch (JsonProcessingException e) {
+            logAndThrowValidationException("extract in row is invalid");
+        }
+        if (!paths.isObject()) {
+            logAndThrowValidationException("extract in row is invalid");
+        }
+        Map<String, JsonPointer> pointers = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = paths.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> path = it.next();
+            if (!path.getValue().isTextual()) {
+                logAndThrowValidationException(String.format("path of %s in extract in row is invalid",
+                        path.getKey()));
+            }
+            pointers.put(path.getKey(), compilePath(path.getKey(), path.getValue().textValue().trim()));
+        }
+        return new Extractions(Collections.unmodifiableMap(pointers));
+    }
+
+    public boolean isEmpty() {
+        return pointers.isEmpty();
+    }
+
+    /**
+     * Extracts every variable from the response body, failing the running test when one of them is missing.
+     */
+    public void extract(JsonNode responseBody) {
+        pointers.forEach((name, pointer) -> {
+            JsonNode value = responseBody.at(pointer);
+            if (value.isMissingNode() || value.isNull()) {
+                Assert.fail(String.format("%s to extract as %s is not in the actual response", pointer, name));
+            }
+            Variables.put(name, value.isValueNode() ? value.asText() : value.toString());
+        });
+    }
+
+    private static JsonPointer compilePath(String name, String path) {
+        try {
+            return path.startsWith("$") ? JsonPointer.compile(toJsonPointer(path)) : JsonPointer.compile(path);
+        } catch (IllegalArgumentException e) {
+            logAndThrowValidationException(String.format("path %s of %s in extract in row is invalid", path, name));
+            return null; // This line will never be reached
+        }
+    }
+
+    /**
+     * Converts a JSONPath such as {@code $.data[0]['first name']} into the JSON Pointer {@code /data/0/first name}.
+     */
+    static String toJsonPointer(String path) {
+        StringBuilder pointer = new StringBuilder();
+        int position = 1;
+        while (position < path.length()) {
+            char c = path.charAt(position);
+            int end;
+            String token;
+            if (c == '.') {
+                end = position + 1;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+                token = path.substring(position + 1, end);
+            } else if (c == '[' && position + 1 < path.length()
+                    && (path.charAt(position + 1) == '\'' || path.charAt(position + 1) == '"')) {
+                char quote = path.charAt(position + 1);
+                int close = path.indexOf(quote, position + 2);
+                if (close < 0 || close + 1 >= path.length() || path.charAt(close + 1) != ']') {
+                    throw new IllegalArgumentException(path);
+                }
+                token = path.substring(position + 2, close);
+                end = close + 2;
+            } else if (c == '[') {
+                int close = path.indexOf(']', position);
+                if (close < 0) {
+                    throw new IllegalArgumentException(path);
+                }
+                token = path.substring(position + 1, close).trim();
+                if (!StringUtils.isNumeric(token)) {
+                    throw new IllegalArgumentException(path);
+                }
+                end = close + 1;
+            } else {
+                throw new IllegalArgumentException(path);
+            }
+            if (token.isEmpty()) {
+                throw new IllegalArgumentException(path);
+            }
+            pointer.append('/').append(token.replace("~", "~0").replace("/", "~1"));
+            position = end;
+        }
+        return pointer.toString();
+    }
+
+    private static void logAndThrowValidationException(String msg) {
+        log.error(msg);
+        throw new ValidationException(msg);
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.chain;
+
+import lombok.extern.log4j.Log4j2;
+import org.example.exception.ValidationException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The variables extracted from the responses of the suite, which later rows read through {@code ${var:name}}
+ * placeholders. A variable extracted again, e.g. by a row run repeatedly, keeps its latest value.
+ */
+@Log4j2
+public final class Variables {
+
+    private static final Map<String, String> VALUES = new ConcurrentHashMap<>();
+
+    private Variables() {}
+
+    public static void put(String name, String value) {
+        VALUES.put(name, value);
+    }
+
+    /**
+     * @throws ValidationException when no row has extracted the variable yet
+     */
+    public static String get(String name) {
+        String value = VALUES.get(name);
+        if (value == null) {
+            String msg = String.format("variable %s is not set, the row extracting it must be a dependency", name);
+            log.error(msg);
+            throw new ValidationException(msg);
+        }
+        return value;
+    }
+}
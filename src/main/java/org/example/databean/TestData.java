@@ -1,25 +1,59 @@
 package org.example.databean;
+import lombok.Builder;
 import lombok.Getter;
-import lombok.Setter;
+import org.example.chain.Extractions;
+import org.example.responsehandler.ExpectedResponse;
+import org.example.template.RequestTemplate;
+import org.example.template.RequestTemplate.RenderedRequest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 
+import java.util.List;
 import java.util.Map;
 
+/**
+ * A row of the data provider, compiled once when it is loaded: the endpoint is resolved, the url encoded, the request
+ * templated and the expected response parsed, so that running the row, repeatedly or not, parses nothing.
+ */
 @Getter
-@Setter
+@Builder(toBuilder = true)
 public class TestData {
 
-    private String id;
-    private String testCaseId;
-    private String testScenario;
-    private String testSteps;
-    private HttpMethod httpMethod;
-    private String endPoint;
-    private String apiPath;
-    private HttpHeaders httpHeaders;
-    private Map<String, String> params;
-    private String requestBody;
-    private int expectedResponseCode;
-    private String expectedResponseBody;
+    private final String id;
+    private final String testCaseId;
+    private final String testScenario;
+    private final String testSteps;
+    private final HttpMethod httpMethod;
+    // The endpoint key of the row, by which its requests are limited
+    private final String endPointKey;
+    private final String endPoint;
+    private final String apiPath;
+    private final HttpHeaders httpHeaders;
+    private final Map<String, String> params;
+    private final String requestBody;
+    private final RequestTemplate requestTemplate;
+    private final ExpectedResponse<?> expectedResponse;
+    private final Extractions extractions;
+    // The ids of the rows that must complete before this one runs
+    private final List<String> dependsOn;
+    // Hash of the raw values of the row, its resolved endpoint and its validator, telling a changed row from the one
+    // run before under the same id
+    private final String contentHash;
+    // Whether the row passed with this content before and is reported as a cached pass instead of being run
+    private final boolean cached;
+
+    /**
+     * Renders the request to send for this run of the row, a new variant of it when the row has placeholders.
+     */
+    public RenderedRequest render() {
+        return requestTemplate.render();
+    }
+
+    public int getExpectedResponseCode() {
+        return expectedResponse.getResponseCode();
+    }
+
+    public String getExpectedResponseBody() {
+        return expectedResponse.getResponseBody();
+    }
 }
@@ -0,0 +1,62 @@
+package org.example.dataprovider;
+
+import lombok.extern.log4j.Log4j2;
+import org.example.chain.DependencyOrder;
+import org.example.exception.ValidationException;
+import org.example.schedule.DurationSchedule;
+import org.example.schedule.IncrementalRun;
+import org.example.shard.Shard;
+import org.example.util.ConfigReaderUtil;
+import org.testng.ITestContext;
+import org.testng.annotations.DataProvider;
+
+import java.util.Iterator;
+
+/**
+ * Provides the rows of the {@code dataProvider} file through the provider of its {@code data_provider_format}:
+ * {@code xlsx} for a workbook, read by {@link RestRequestDataProviderXlsx}, or {@code jsonl} for one JSON object per
+ * line, read by {@link RestRequestDataProviderJsonl}. When the suite is split into shards, only the rows of this
+ * {@link Shard} are provided. Rows are provided in the order of their {@link DurationSchedule}, those that need not run
+ * again in an {@link IncrementalRun} marked as cached, and each after the rows it depends on, in the
+ * {@link DependencyOrder} the runner waits on.
+ */
+@Log4j2
+public class RestRequestDataProvider {
+
+    @DataProvider(name = "restRequestDataProvider")
+    public Iterator<Object[]> provideData(ITestContext context) {
+        return DependencyOrder.of(DurationSchedule.order(IncrementalRun.mark(Shard.fromConfig().select(
+                provideAllData())), isStreamed(), context), context);
+    }
+
+    /**
+     * Provides the rows like {@link #provideData(ITestContext)}, all of them to be run even in an {@link IncrementalRun}, for
+     * the runners that send them on their own.
+     */
+    public Iterator<Object[]> provideRows() {
+        return DurationSchedule.order(Shard.fromConfig().select(provideAllData()), isStreamed(), null);
+    }
+
+    /**
+     * Returns whether the rows are read lazily as they run, rather than loaded up front.
+     */
+    private static boolean isStreamed() {
+        String format = ConfigReaderUtil.getConfig("data_provider_format", "xlsx").trim();
+        return format.equalsIgnoreCase("jsonl") || format.equalsIgnoreCase("xlsx")
+                && Boolean.parseBoolean(ConfigReaderUtil.getConfig("xlsx_streaming", "false"));
+    }
+
+    private Iterator<Object[]> provideAllData() {
+        String format = ConfigReaderUtil.getConfig("data_provider_format", "xlsx").trim();
+        switch (format.toLowerCase()) {
+            case "xlsx":
+                return new RestRequestDataProviderXlsx().provideData();
+            case "jsonl":
+                return new RestRequestDataProviderJsonl().provideData();
+            default:
+                String msg = String.format("data_provider_format %s in config is invalid", format);
+                log.error(msg);
+                throw new ValidationException(msg);
+        }
+    }
+}
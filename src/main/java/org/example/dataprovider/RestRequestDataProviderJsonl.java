@@ -0,0 +1,127 @@
+package org.example.dataprovider;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.example.databean.TestData;
+import org.example.exception.ValidationException;
+import org.example.util.ConfigReaderUtil;
+import org.testng.annotations.DataProvider;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Provides the rows of a JSONL file, one JSON object per line, e.g.
+ * <pre>
+ * {"id":"TC1","http_method":"GET","endpoint":"jsonPlaceHolder","api_path":"/todos/1","headers":{},"params":{},
+ *  "request_body":"{}","expected_response_code":200,"expected_response_body":{"id":1}}
+ * </pre>
+ * The fields are named after the {@code col_*} column keys without their prefix and are validated like the cells of
+ * a workbook row; headers, params and bodies may be given as JSON values or as strings. The file is read lazily, one
+ * line per row TestNG asks for, so the memory used does not depend on the number of rows. Blank lines are skipped.
+ */
+@Log4j2
+public class RestRequestDataProviderJsonl {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String COLUMN_KEY_PREFIX = "col_";
+
+    @DataProvider(name = "restRequestDataProvider")
+    public Iterator<Object[]> provideData() {
+        String path = ConfigReaderUtil.getConfig("dataProvider");
+        BufferedReader reader;
+        try {
+            reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.error("Exception occurred in data provider");
+            throw new RuntimeException("Unable to open " + path, e);
+        }
+        return new Iterator<Object[]>() {
+            private String nextLine;
+            private int lineNumber;
+            private boolean closed;
+
+            @Override
+            public boolean hasNext() {
+                if (nextLine == null && !closed) {
+                    nextLine = readLine();
+                }
+                return nextLine != null;
+            }
+
+            @Override
+            public Object[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String line = nextLine;
+                nextLine = null;
+                try {
+                    TestData testData = toTestData(line);
+                    return new Object[]{testData.getId(), testData};
+                } catch (RuntimeException e) {
+                    log.error("Exception occurred in data provider at {}:{}", path, lineNumber);
+                    close();
+                    throw new ValidationException(String.format("%s:%d: %s", path, lineNumber, e.getMessage()), e);
+                }
+            }
+
+            private String readLine() {
+                try {
+                    String line;
+                    do {
+                        line = reader.readLine();
+                        lineNumber++;
+                    } while (line != null && StringUtils.isBlank(line));
+                    if (line == null) {
+                        close();
+                    }
+                    return line;
+                } catch (IOException e) {
+                    close();
+                    throw new UncheckedIOException("Unable to read " + path, e);
+                }
+            }
+
+            private void close() {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    log.warn("Unable to close {}", path, e);
+                }
+            }
+        };
+    }
+
+    private TestData toTestData(String line) {
+        JsonNode row;
+        try {
+            row = OBJECT_MAPPER.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("line is not valid JSON", e);
+        }
+        if (!row.isObject()) {
+            throw new ValidationException("line is not a JSON object");
+        }
+        return TestDataFactory.createTestData(key -> {
+            JsonNode value = row.get(key.substring(COLUMN_KEY_PREFIX.length()));
+            if (value == null || value.isNull()) {
+                return null;
+            }
+            return value.isTextual() ? value.textValue() : value.toString();
+        });
+    }
+}
@@ -1,150 +1,150 @@
 package org.example.dataprovider;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.log4j.Log4j2;
-import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.example.databean.TestData;
 import org.example.exception.ValidationException;
 import org.example.util.ConfigReaderUtil;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.testng.annotations.DataProvider;
 
-import java.util.HashMap;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Log4j2
 public class RestRequestDataProviderXlsx {
 
+    /**
+     * Provides the rows of the configured sheet. With {@code xlsx_streaming=true} the workbook is streamed and each
+     * row is only parsed when TestNG asks for it; otherwise the whole workbook is loaded up front. Either way the
+     * workbook is opened read only and its columns are resolved from the header row by {@link RowDecoder}. With
+     * {@code workbook_snapshot=true} the rows are read from the snapshot of a previous run when the workbook and the
+     * column mapping have not changed since.
+     */
     @DataProvider(name = "restRequestDataProvider")
-    public Object[][] provideData() {
-        try (Workbook workbook = new XSSFWorkbook(ConfigReaderUtil.getConfig("dataProvider"))) {
-            Sheet sheet = workbook.getSheet(ConfigReaderUtil.getConfig("sheet_name"));
+    public Iterator<Object[]> provideData() {
+        String workbookPath = ConfigReaderUtil.getConfig("dataProvider");
+        String sheetName = ConfigReaderUtil.getConfig("sheet_name");
+        WorkbookSnapshot snapshot = Boolean.parseBoolean(ConfigReaderUtil.getConfig("workbook_snapshot", "true"))
+                ? new WorkbookSnapshot(workbookPath, sheetName, configuredColumns())
+                : null;
+        if (snapshot != null) {
+            Iterator<String[]> rows = snapshot.read();
+            if (rows != null) {
+                return new Iterator<Object[]>() {
+                    @Override
+                    public boolean hasNext() {
+                        return rows.hasNext();
+                    }
+
+                    @Override
+                    public Object[] next() {
+                        return toTestParameters(rows.next());
+                    }
+                };
+            }
+        }
+        if (Boolean.parseBoolean(ConfigReaderUtil.getConfig("xlsx_streaming", "false"))) {
+            return streamData(workbookPath, sheetName, snapshot);
+        }
+        return Arrays.asList(readData(workbookPath, sheetName, snapshot)).iterator();
+    }
+
+    private Object[][] readData(String workbookPath, String sheetName, WorkbookSnapshot snapshot) {
+        Object[][] objects;
+        OPCPackage workbookPackage = null;
+        WorkbookSnapshot.Writer snapshotWriter = snapshot != null ? snapshot.writer() : null;
+        try {
+            workbookPackage = OPCPackage.open(workbookPath, PackageAccess.READ);
+            Sheet sheet = new XSSFWorkbook(workbookPackage).getSheet(sheetName);
+            if (sheet == null) {
+                logAndThrowValidationException(String.format("sheet %s not found in workbook", sheetName));
+            }
             int size = sheet.getPhysicalNumberOfRows() - 1;
-            Object[][] objects = new Object[size][2];
+            objects = new Object[size][2];
+            RowDecoder decoder = RowDecoder.compile(RowDecoder.readCells(sheet.getRow(0)));
 
             for (int i = 1; i <= size; i++) {
-                Row row = sheet.getRow(i);
-                TestData testData = createTestData(row);
-                objects[i - 1] = new Object[]{testData.getId(), testData};
+                String[] values = decoder.decode(sheet.getRow(i));
+                objects[i - 1] = toTestParameters(values);
+                if (snapshotWriter != null) {
+                    snapshotWriter.add(values);
+                }
+            }
+            if (snapshotWriter != null) {
+                snapshotWriter.commit();
             }
-            return objects;
         } catch (Exception e) {
             log.error("Exception occurred in data provider");
             throw new RuntimeException(e);
+        } finally {
+            // A package opened read only is closed by reverting it, which never writes the workbook back
+            if (workbookPackage != null) {
+                workbookPackage.revert();
+            }
+            if (snapshotWriter != null) {
+                snapshotWriter.close();
+            }
         }
+        return objects;
     }
 
-    private TestData createTestData(Row row) {
-        TestData testData = new TestData();
-        try {
-            testData.setId(validateInput(row, "col_id", "id", false, true));
-            testData.setTestCaseId(validateInput(row,
-                    "col_test_case_id", "test case id", true, false));
-            testData.setTestScenario(validateInput(row,
-                    "col_test_scenario", "test scenario", false, false));
-            testData.setTestSteps(validateInput(row,
-                    "col_test_steps", "test steps", false, false));
-            testData.setHttpMethod(computeHttpMethod(row));
-            testData.setEndPoint(enrich(validateInput(row,
-                    "col_endpoint", "endpoint", false, true)));
-            testData.setApiPath(validateInput(row,
-                    "col_api_path", "api path", false, true));
-            testData.setRequestBody(validateInput(row,
-                    "col_request_body", "request body", false, true));
-            testData.setExpectedResponseBody(validateInput(row, "col_expected_response_body",
-                    "expected response body", false, true));
-            testData.setExpectedResponseCode(computeResponseCode(validateInput(row, "col_expected_response_code",
-                    "expected response code", false, true)));
-            testData.setParams(new ObjectMapper().readValue(validateInput(row, "col_params", "params",
-                    false, true), new TypeReference<HashMap<String, String>>() {
-            }));
-            testData.setHttpHeaders(computeHttpHeaders(validateInput(row, "col_headers",
-                    "headers", false, true)));
-        } catch (JsonProcessingException e) {
-            logAndThrowValidationException("params in excel is invalid");
-        }
-        return testData;
-    }
-
-
-    private HttpHeaders computeHttpHeaders(String rawHeaders) {
-        HttpHeaders httpHeaders = new HttpHeaders();;
-        try {
-            JSONObject jsonObject = (JSONObject) new JSONParser().parse(rawHeaders);
-            if (!jsonObject.isEmpty()) {
-                Set<String> strings = jsonObject.keySet();
-                for (String string : strings) {
-                    httpHeaders.add(string, jsonObject.get(string).toString());
+    private Iterator<Object[]> streamData(String workbookPath, String sheetName, WorkbookSnapshot snapshot) {
+        StreamingXlsxRowIterator rows = new StreamingXlsxRowIterator(workbookPath, sheetName);
+        // The first row holds the column headers
+        RowDecoder decoder = RowDecoder.compile(rows.hasNext() ? rows.next() : new String[0]);
+        // The snapshot is written as the rows stream by and moved into place after the last one
+        WorkbookSnapshot.Writer snapshotWriter = snapshot != null ? snapshot.writer() : null;
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                boolean hasNext = rows.hasNext();
+                if (!hasNext && snapshotWriter != null) {
+                    snapshotWriter.commit();
+                    snapshotWriter.close();
                 }
+                return hasNext;
             }
-        } catch (ParseException e) {
-            logAndThrowValidationException("headers in excel is invalid");
-        }
-        return httpHeaders;
-    }
-
-    private int computeResponseCode(String s) {
-        try {
-            return (int) Double.parseDouble(s);
-        } catch (NumberFormatException e) {
-            String msg = String.format("Unable to parse '%s' as expected response code in excel", s);
-            logAndThrowValidationException(msg);
-            return -1; // This line will never be reached, but included for completeness
-        }
-    }
-
 
-    private String enrich(String endPoint) {
-        return ConfigReaderUtil.getConfig(endPoint);
+            @Override
+            public Object[] next() {
+                try {
+                    String[] values = decoder.decode(rows.next());
+                    Object[] testParameters = toTestParameters(values);
+                    if (snapshotWriter != null) {
+                        snapshotWriter.add(values);
+                    }
+                    return testParameters;
+                } catch (RuntimeException e) {
+                    log.error("Exception occurred in data provider");
+                    rows.close();
+                    if (snapshotWriter != null) {
+                        snapshotWriter.close();
+                    }
+                    throw e;
+                }
+            }
+        };
     }
 
-    private HttpMethod computeHttpMethod(Row row) {
-        String requestType = validateInput(row,
-                "col_http_method", "http method", false, true).toUpperCase();
-
-        switch (requestType) {
-            case "GET":
-                return HttpMethod.GET;
-            case "POST":
-                return HttpMethod.POST;
-            default:
-                String msg = String.format("%s in excel is invalid", requestType);
-                log.error(msg);
-                throw new ValidationException(msg);
+    /**
+     * Returns the configured column of every key, which decides the columns missing from the header row.
+     */
+    private Map<String, String> configuredColumns() {
+        Map<String, String> configured = new LinkedHashMap<>();
+        for (String key : TestDataFactory.COLUMN_KEYS) {
+            configured.put(key, ConfigReaderUtil.getConfig(key, ""));
         }
+        return configured;
     }
 
-
-    private String validateInput(Row row, String key, String data, boolean initialiseEmpty, boolean mandatory) {
-        String stringCellValue = null;
-        try {
-            Cell cell = row.getCell(Integer.parseInt(ConfigReaderUtil.getConfig(key)));
-            cell.setCellType(CellType.STRING);
-            stringCellValue = cell.getStringCellValue();
-            if (StringUtils.isBlank(stringCellValue)) {
-                String msg = data + " in excel is blank";
-                if (mandatory) {
-                    log.error(msg);
-                    throw new ValidationException(msg);
-                }
-                if (initialiseEmpty)
-                    stringCellValue = "";
-            } else if (!initialiseEmpty) {
-                stringCellValue = stringCellValue.trim();
-            }
-        } catch (NumberFormatException e) {
-            String msg = String.format("Unable to parse int for %s in config", key);
-            logAndThrowValidationException(msg);
-        }
-        return stringCellValue;
+    private Object[] toTestParameters(String[] values) {
+        TestData testData = TestDataFactory.createTestData(values);
+        return new Object[]{testData.getId(), testData};
     }
 
     private void logAndThrowValidationException(String msg) {
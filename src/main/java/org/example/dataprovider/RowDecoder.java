@@ -0,0 +1,127 @@
+package org.example.dataprovider;
+
+import lombok.extern.log4j.Log4j2;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.example.exception.ValidationException;
+import org.example.util.ConfigReaderUtil;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Decodes the rows of a sheet into the values of the {@code col_*} columns, in the order of
+ * {@link TestDataFactory#COLUMN_KEYS}. The sheet column of every key is resolved once per sheet from the header
+ * row, by name, e.g. {@code expected response code} for {@code col_expected_response_code}; a key whose name is not
+ * in the header row falls back to the column index configured under it, and an optional column without either is
+ * read as blank. Columns can therefore be reordered without editing the config.
+ * <p>
+ * Cells are read as text without changing their type, numbers the way Excel displays them, so the workbook is never
+ * modified.
+ */
+@Log4j2
+final class RowDecoder {
+
+    private final int[] columns;
+
+    private RowDecoder(int[] columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Resolves the column of every key from the header row of the sheet, or from the config.
+     *
+     * @param headerRow the cell values of the first row of the sheet
+     */
+    static RowDecoder compile(String[] headerRow) {
+        Map<String, Integer> headerColumns = new HashMap<>();
+        for (int column = headerRow.length - 1; column >= 0; column--) {
+            if (headerRow[column] != null) {
+                headerColumns.put(normalize(headerRow[column]), column);
+            }
+        }
+        List<String> keys = TestDataFactory.COLUMN_KEYS;
+        int[] columns = new int[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            Integer column = headerColumns.get(normalize(key.substring("col_".length())));
+            columns[i] = column != null ? column : configuredColumn(key);
+        }
+        return new RowDecoder(columns);
+    }
+
+    String[] decode(String[] cells) {
+        String[] values = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i] >= 0 && columns[i] < cells.length ? cells[columns[i]] : null;
+        }
+        return values;
+    }
+
+    String[] decode(Row row) {
+        String[] values = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i] >= 0 ? cellValue(row.getCell(columns[i])) : null;
+        }
+        return values;
+    }
+
+    static String[] readCells(Row row) {
+        String[] cells = new String[Math.max(row.getLastCellNum(), 0)];
+        for (Cell cell : row) {
+            cells[cell.getColumnIndex()] = cellValue(cell);
+        }
+        return cells;
+    }
+
+    /**
+     * Reads the cell as text, formulas by their cached result, the same way the streaming reader does.
+     */
+    private static String cellValue(Cell cell) {
+        if (cell == null) {
+            return null;
+        }
+        CellType type = cell.getCellType() == CellType.FORMULA ? cell.getCachedFormulaResultType() : cell.getCellType();
+        switch (type) {
+            case STRING:
+                return cell.getStringCellValue();
+            case NUMERIC:
+                return NumberToTextConverter.toText(cell.getNumericCellValue());
+            case BOOLEAN:
+                return cell.getBooleanCellValue() ? "TRUE" : "FALSE";
+            case ERROR:
+                return FormulaError.forInt(cell.getErrorCellValue()).getString();
+            default:
+                return null;
+        }
+    }
+
+    private static int configuredColumn(String key) {
+        String configured = ConfigReaderUtil.getConfig(key, "").trim();
+        if (configured.isEmpty() && TestDataFactory.OPTIONAL_COLUMN_KEYS.contains(key)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(configured);
+        } catch (NumberFormatException e) {
+            String msg = String.format("column of %s not found in the header row and unable to parse int for %s " +
+                    "in config", key.substring("col_".length()), key);
+            log.error(msg);
+            throw new ValidationException(msg);
+        }
+    }
+
+    /**
+     * Lower cases the name and drops everything but letters and digits, as well as a plural s, so that
+     * {@code Test Steps}, {@code test step} and {@code test_steps} all match.
+     */
+    private static String normalize(String name) {
+        String normalized = name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+        return normalized.endsWith("s") ? normalized.substring(0, normalized.length() - 1) : normalized;
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.dataprovider;
+
+import lombok.extern.log4j.Log4j2;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.example.exception.ValidationException;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily reads the rows of one sheet of an xlsx workbook, without loading the workbook into memory.
+ * <p>
+ * Only the shared strings table is kept in memory; the sheet XML is pulled one row at a time with StAX, so the heap
+ * usage does not depend on the number of rows. Each row is returned as the string values of its cells, indexed by
+ * column, with numbers as Excel displays them, the same way {@link RowDecoder} reads a loaded row. The workbook is
+ * closed once the last row has been read or when {@link #close()} is called.
+ */
+@Log4j2
+class StreamingXlsxRowIterator implements Iterator<String[]>, Closeable {
+
+    // POI's factory, with DTDs and external entities disabled as for the workbooks POI parses itself
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLHelper.newXMLInputFactory();
+
+    private final OPCPackage workbookPackage;
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final InputStream sheetStream;
+    private final XMLStreamReader sheetReader;
+    private String[] nextRow;
+    private boolean closed;
+
+    StreamingXlsxRowIterator(String workbookPath, String sheetName) {
+        try {
+            workbookPackage = OPCPackage.open(workbookPath, PackageAccess.READ);
+            sharedStrings = new ReadOnlySharedStringsTable(workbookPackage);
+            sheetStream = openSheet(new XSSFReader(workbookPackage), sheetName);
+            sheetReader = XML_INPUT_FACTORY.createXMLStreamReader(sheetStream);
+        } catch (IOException | OpenXML4JException | SAXException | XMLStreamException e) {
+            throw new RuntimeException("Unable to open workbook " + workbookPath, e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextRow == null && !closed) {
+            nextRow = readRow();
+            if (nextRow == null) {
+                close();
+            }
+        }
+        return nextRow != null;
+    }
+
+    @Override
+    public String[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String[] row = nextRow;
+        nextRow = null;
+        return row;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            sheetReader.close();
+            sheetStream.close();
+        } catch (XMLStreamException | IOException e) {
+            log.error("Unable to close sheet stream");
+        }
+        workbookPackage.revert();
+    }
+
+    private InputStream openSheet(XSSFReader reader, String sheetName) throws IOException, OpenXML4JException {
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+        while (sheets.hasNext()) {
+            InputStream sheet = sheets.next();
+            if (sheets.getSheetName().equals(sheetName)) {
+                return sheet;
+            }
+            sheet.close();
+        }
+        workbookPackage.revert();
+        String msg = String.format("sheet %s not found in workbook", sheetName);
+        log.error(msg);
+        throw new ValidationException(msg);
+    }
+
+    /**
+     * Advances the sheet reader to the next {@code row} element and reads its cells.
+     *
+     * @return the cell values of the row, or null when the sheet has no more rows
+     */
+    private String[] readRow() {
+        try {
+            while (sheetReader.hasNext()) {
+                if (sheetReader.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheetReader.getLocalName())) {
+                    return readCells();
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new RuntimeException("Unable to read sheet", e);
+        }
+    }
+
+    private String[] readCells() throws XMLStreamException {
+        List<String> cells = new ArrayList<>();
+        int column = 0;
+        while (sheetReader.hasNext()) {
+            int event = sheetReader.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheetReader.getLocalName())) {
+                break;
+            }
+            if (event == XMLStreamConstants.START_ELEMENT && "c".equals(sheetReader.getLocalName())) {
+                String reference = sheetReader.getAttributeValue(null, "r");
+                if (reference != null) {
+                    column = new CellReference(reference).getCol();
+                }
+                String value = readCellValue(sheetReader.getAttributeValue(null, "t"));
+                while (cells.size() <= column) {
+                    cells.add(null);
+                }
+                cells.set(column, value);
+                column++;
+            }
+        }
+        return cells.toArray(new String[0]);
+    }
+
+    /**
+     * Reads the value of the current {@code c} element according to its type attribute.
+     */
+    private String readCellValue(String type) throws XMLStreamException {
+        StringBuilder value = new StringBuilder();
+        boolean hasValue = false;
+        while (sheetReader.hasNext()) {
+            int event = sheetReader.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "c".equals(sheetReader.getLocalName())) {
+                break;
+            }
+            // <v> holds the value of every cell type except inline strings, whose text is in <is><t>
+            if (event == XMLStreamConstants.START_ELEMENT
+                    && ("v".equals(sheetReader.getLocalName()) || "t".equals(sheetReader.getLocalName()))) {
+                value.append(sheetReader.getElementText());
+                hasValue = true;
+            }
+        }
+        if (!hasValue) {
+            return null;
+        }
+        String rawValue = value.toString();
+        if (type == null || "n".equals(type)) {
+            return NumberToTextConverter.toText(Double.parseDouble(rawValue));
+        }
+        switch (type) {
+            case "s":
+                return sharedStrings.getItemAt(Integer.parseInt(rawValue)).getString();
+            case "b":
+                return "1".equals(rawValue) ? "TRUE" : "FALSE";
+            default:
+                return rawValue;
+        }
+    }
+}
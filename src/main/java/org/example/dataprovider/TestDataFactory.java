@@ -0,0 +1,274 @@
+package org.example.dataprovider;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.example.chain.Extractions;
+import org.example.databean.TestData;
+import org.example.exception.ValidationException;
+import org.example.replay.HttpMode;
+import org.example.replay.ReplayServer;
+import org.example.responsehandler.ExpectedResponse;
+import org.example.responsehandler.ResponseValidatorFactory;
+import org.example.template.RequestTemplate;
+import org.example.util.ConfigReaderUtil;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.example.Constants.SCHEMA;
+
+/**
+ * Validates a row of any data provider and compiles it into an immutable test case. A row is read through its raw
+ * values keyed by the {@code col_*} column keys, so every provider applies the same validation rules.
+ */
+@Log4j2
+final class TestDataFactory {
+
+    static final List<String> COLUMN_KEYS = List.of("col_id", "col_test_case_id", "col_test_scenario",
+            "col_test_steps", "col_http_method", "col_endpoint", "col_api_path", "col_headers", "col_params",
+            "col_request_body", "col_expected_response_code", "col_expected_response_body", "col_extract",
+            "col_depends_on");
+    // Columns a data provider may leave out altogether
+    static final Set<String> OPTIONAL_COLUMN_KEYS = Set.of("col_extract", "col_depends_on");
+
+    private static final Map<String, Integer> COLUMN_POSITIONS = new HashMap<>();
+    private static final int CONTENT_HASH_BYTES = 8;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, String>> PARAMS_TYPE = new TypeReference<>() {
+    };
+
+    static {
+        for (int i = 0; i < COLUMN_KEYS.size(); i++) {
+            COLUMN_POSITIONS.put(COLUMN_KEYS.get(i), i);
+        }
+    }
+
+    private TestDataFactory() {}
+
+    /**
+     * Validates a decoded row and compiles it into an immutable test case.
+     *
+     * @param values the raw value of each column key, in the order of {@link #COLUMN_KEYS}
+     * @return the compiled test case
+     */
+    static TestData createTestData(String[] values) {
+        return createTestData(key -> values[COLUMN_POSITIONS.get(key)]);
+    }
+
+    /**
+     * Validates the row and compiles it into an immutable test case, parsing its params, headers, placeholders and
+     * expected response once.
+     *
+     * @param row the raw value of each column key, or null when the row has no value for it
+     * @return the compiled test case
+     */
+    static TestData createTestData(Function<String, String> row) {
+        String id = validateInput(row, "col_id", "id", false, true);
+        String testCaseId = validateInput(row,
+                "col_test_case_id", "test case id", true, false);
+        String testScenario = validateInput(row,
+                "col_test_scenario", "test scenario", false, false);
+        String testSteps = validateInput(row,
+                "col_test_steps", "test steps", false, false);
+        HttpMethod httpMethod = computeHttpMethod(row);
+        String endPointKey = validateInput(row,
+                "col_endpoint", "endpoint", false, true);
+        String endPointUrl = ConfigReaderUtil.getConfig(endPointKey);
+        String endPoint = enrich(endPointUrl);
+        String apiPath = validateInput(row,
+                "col_api_path", "api path", false, true);
+        String requestBody = validateInput(row,
+                "col_request_body", "request body", false, true);
+        String expectedResponseBody = validateInput(row, "col_expected_response_body",
+                "expected response body", false, true);
+        int expectedResponseCode = computeResponseCode(validateInput(row, "col_expected_response_code",
+                "expected response code", false, true));
+        Map<String, String> params = computeParams(validateInput(row, "col_params", "params",
+                false, true));
+        HttpHeaders httpHeaders = computeHttpHeaders(validateInput(row, "col_headers",
+                "headers", false, true));
+        Extractions extractions = Extractions.compile(validateInput(row, "col_extract", "extract", false, false));
+        List<String> dependsOn = computeDependsOn(validateInput(row, "col_depends_on", "depends on", false, false));
+        ExpectedResponse<?> expectedResponse = ResponseValidatorFactory.compileExpectedResponse(
+                testCaseId.equalsIgnoreCase(SCHEMA), expectedResponseBody, expectedResponseCode);
+
+        return TestData.builder()
+                .id(id)
+                .testCaseId(testCaseId)
+                .testScenario(testScenario)
+                .testSteps(testSteps)
+                .httpMethod(httpMethod)
+                .endPointKey(endPointKey)
+                .endPoint(endPoint)
+                .apiPath(apiPath)
+                .httpHeaders(httpHeaders)
+                .params(params)
+                .requestBody(requestBody)
+                .requestTemplate(RequestTemplate.compile(httpMethod, apiPath, params, httpHeaders, requestBody,
+                        (path, pathParams) -> computeUrl(endPoint, path, pathParams)))
+                .expectedResponse(expectedResponse)
+                .extractions(extractions)
+                .dependsOn(dependsOn)
+                .contentHash(computeContentHash(row, endPointUrl, expectedResponse.getValidatorType()))
+                .build();
+    }
+
+    private static Map<String, String> computeParams(String rawParams) {
+        try {
+            return Collections.unmodifiableMap(OBJECT_MAPPER.readValue(rawParams, PARAMS_TYPE));
+        } catch (JsonProcessingException e) {
+            logAndThrowValidationException("params in row is invalid");
+            return null; // This line will never be reached
+        }
+    }
+
+    private static HttpHeaders computeHttpHeaders(String rawHeaders) {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        try {
+            JsonNode headers = OBJECT_MAPPER.readTree(rawHeaders);
+            if (!headers.isObject()) {
+                logAndThrowValidationException("headers in row is invalid");
+            }
+            headers.fields().forEachRemaining(header -> httpHeaders.add(header.getKey(),
+                    header.getValue().isTextual() ? header.getValue().textValue() : header.getValue().toString()));
+        } catch (JsonProcessingException e) {
+            logAndThrowValidationException("headers in row is invalid");
+        }
+        return HttpHeaders.readOnlyHttpHeaders(httpHeaders);
+    }
+
+    /**
+     * Hashes the raw values of every column of the row, the url its endpoint resolves to and the validator of its
+     * response, so that a changed row, or a row now sent elsewhere or validated otherwise, can be told from the same
+     * row run before.
+     */
+    private static String computeContentHash(Function<String, String> row, String endPointUrl, String validatorType) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String key : COLUMN_KEYS) {
+                String value = row.apply(key);
+                digest.update((key + '=' + (value == null ? "" : value) + '\0').getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update(("endpoint_url=" + endPointUrl + '\0').getBytes(StandardCharsets.UTF_8));
+            digest.update(("validator=" + validatorType + '\0').getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            byte[] hash = digest.digest();
+            for (int i = 0; i < CONTENT_HASH_BYTES; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Reads the ids the row depends on, separated by commas or as a JSON array.
+     */
+    private static List<String> computeDependsOn(String rawDependsOn) {
+        if (StringUtils.isBlank(rawDependsOn)) {
+            return Collections.emptyList();
+        }
+        List<String> dependsOn = new ArrayList<>();
+        if (rawDependsOn.startsWith("[")) {
+            try {
+                OBJECT_MAPPER.readTree(rawDependsOn).forEach(id -> dependsOn.add(id.asText().trim()));
+            } catch (JsonProcessingException e) {
+                logAndThrowValidationException("depends on in row is invalid");
+            }
+        } else {
+            for (String id : rawDependsOn.split(",")) {
+                dependsOn.add(id.trim());
+            }
+        }
+        if (dependsOn.stream().anyMatch(String::isEmpty)) {
+            logAndThrowValidationException("depends on in row is invalid");
+        }
+        return Collections.unmodifiableList(dependsOn);
+    }
+
+    /**
+     * Builds the url of the row with its query params encoded.
+     */
+    static String computeUrl(String endPoint, String apiPath, Map<String, String> params) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(endPoint + apiPath);
+        for (Map.Entry<String, String> entry : params.entrySet()) {
+            builder.queryParam(entry.getKey(), entry.getValue());
+        }
+        return builder.toUriString();
+    }
+
+    private static int computeResponseCode(String s) {
+        try {
+            return (int) Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            String msg = String.format("Unable to parse '%s' as expected response code in row", s);
+            logAndThrowValidationException(msg);
+            return -1; // This line will never be reached, but included for completeness
+        }
+    }
+
+
+    /**
+     * Points the resolved endpoint of the row at the replay server standing in for it with {@code http_mode=replay}.
+     */
+    private static String enrich(String endPointUrl) {
+        return endPointUrl != null && HttpMode.fromConfig() == HttpMode.REPLAY
+                ? ReplayServer.rewrite(endPointUrl) : endPointUrl;
+    }
+
+    private static HttpMethod computeHttpMethod(Function<String, String> row) {
+        String requestType = validateInput(row,
+                "col_http_method", "http method", false, true).toUpperCase();
+
+        switch (requestType) {
+            case "GET":
+                return HttpMethod.GET;
+            case "POST":
+                return HttpMethod.POST;
+            default:
+                String msg = String.format("%s in row is invalid", requestType);
+                log.error(msg);
+                throw new ValidationException(msg);
+        }
+    }
+
+
+    private static String validateInput(Function<String, String> row, String key, String data,
+                                        boolean initialiseEmpty, boolean mandatory) {
+        String stringCellValue = row.apply(key);
+        if (StringUtils.isBlank(stringCellValue)) {
+            String msg = data + " in row is blank";
+            if (mandatory) {
+                log.error(msg);
+                throw new ValidationException(msg);
+            }
+            if (initialiseEmpty)
+                stringCellValue = "";
+        } else if (!initialiseEmpty) {
+            stringCellValue = stringCellValue.trim();
+        }
+        return stringCellValue;
+    }
+
+    private static void logAndThrowValidationException(String msg) {
+        log.error(msg);
+        throw new ValidationException(msg);
+    }
+}
@@ -0,0 +1,256 @@
+package org.example.dataprovider;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * JSONL snapshot of the validated rows of a workbook sheet, written next to the workbook so that a later run can skip
+ * opening and parsing the workbook.
+ * <p>
+ * The first line holds the key of the snapshot: a SHA-256 hash of the workbook content, the sheet name and the
+ * configured column mapping. Every following line is one decoded row, as a JSON array of its values in the order of
+ * {@link TestDataFactory#COLUMN_KEYS}. A snapshot whose key no longer matches is ignored and rewritten by the next
+ * run. Snapshots are read and written one row at a time, so they hold no more of the sheet in memory than the
+ * streaming workbook reader does.
+ */
+@Log4j2
+final class WorkbookSnapshot {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String SNAPSHOT_SUFFIX = ".snapshot.jsonl";
+    private static final String FORMAT_VERSION = "2";
+
+    private final Path workbook;
+    private final Path snapshotFile;
+    private final String sheetName;
+    private final Map<String, String> columns;
+
+    /**
+     * @param columns the configured column of every key, which the decoded rows depend on through the header row
+     *                fallback
+     */
+    WorkbookSnapshot(String workbookPath, String sheetName, Map<String, String> columns) {
+        this.workbook = Paths.get(workbookPath);
+        this.snapshotFile = Paths.get(workbookPath + SNAPSHOT_SUFFIX);
+        this.sheetName = sheetName;
+        this.columns = columns;
+    }
+
+    /**
+     * Returns the rows of the snapshot, read one line at a time as they are iterated, or null when there is no snapshot
+     * matching the current workbook and mapping.
+     */
+    Iterator<String[]> read() {
+        if (!Files.exists(snapshotFile)) {
+            return null;
+        }
+        BufferedReader reader = null;
+        try {
+            reader = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8);
+            String header = reader.readLine();
+            if (header == null || !key().equals(OBJECT_MAPPER.readTree(header).path("key").asText())) {
+                log.info("Snapshot {} is stale, reading the workbook", snapshotFile);
+                reader.close();
+                return null;
+            }
+            log.info("Reading rows from snapshot {}", snapshotFile);
+            return new SnapshotRows(reader);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to read snapshot {}, reading the workbook", snapshotFile, e);
+            closeQuietly(reader);
+            return null;
+        }
+    }
+
+    /**
+     * Opens a writer of the snapshot, to which the rows are added as they are decoded. The rows go to a temporary file
+     * moved over the snapshot on {@link Writer#commit()}, so that concurrent runs never read a partially written
+     * snapshot. A failed write only costs the next run its fast start.
+     */
+    Writer writer() {
+        return new Writer();
+    }
+
+    /**
+     * Writes the rows of the snapshot one line at a time. Once it failed it ignores the rows added.
+     */
+    final class Writer implements Closeable {
+
+        private Path tempFile;
+        private BufferedWriter out;
+        private int rowCount;
+
+        private Writer() {
+            try {
+                Path directory = snapshotFile.toAbsolutePath().getParent();
+                tempFile = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+                out = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8);
+                out.write(OBJECT_MAPPER.createObjectNode().put("key", key()).toString());
+                out.newLine();
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        void add(String[] row) {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.write(OBJECT_MAPPER.writeValueAsString(row));
+                out.newLine();
+                rowCount++;
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * Moves the rows written into place as the snapshot.
+         */
+        void commit() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.close();
+                out = null;
+                Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                log.info("Wrote {} rows to snapshot {}", rowCount, snapshotFile);
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * Discards the rows written unless they were committed.
+         */
+        @Override
+        public void close() {
+            if (out != null) {
+                closeQuietly(out);
+                out = null;
+                deleteTempFile();
+            }
+        }
+
+        private void fail(Exception e) {
+            log.warn("Unable to write snapshot {}", snapshotFile, e);
+            closeQuietly(out);
+            out = null;
+            deleteTempFile();
+        }
+
+        private void deleteTempFile() {
+            if (tempFile == null) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                log.warn("Unable to delete {}", tempFile, e);
+            }
+        }
+    }
+
+    /**
+     * Iterates the rows of a snapshot, closing it once the last row has been read.
+     */
+    private final class SnapshotRows implements Iterator<String[]> {
+
+        private final BufferedReader reader;
+        private String nextLine;
+        private int rowCount;
+        private boolean closed;
+
+        private SnapshotRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextLine == null && !closed) {
+                try {
+                    nextLine = reader.readLine();
+                } catch (IOException e) {
+                    close();
+                    throw new UncheckedIOException("Unable to read snapshot " + snapshotFile, e);
+                }
+                if (nextLine == null) {
+                    log.info("Read {} rows from snapshot {}", rowCount, snapshotFile);
+                    close();
+                }
+            }
+            return nextLine != null;
+        }
+
+        @Override
+        public String[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String line = nextLine;
+            nextLine = null;
+            try {
+                rowCount++;
+                return OBJECT_MAPPER.readValue(line, String[].class);
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException("Unable to read snapshot " + snapshotFile, e);
+            }
+        }
+
+        private void close() {
+            closed = true;
+            closeQuietly(reader);
+        }
+    }
+
+    private void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.warn("Unable to close snapshot {}", snapshotFile, e);
+        }
+    }
+
+    /**
+     * Hashes the workbook through a memory mapping, then the sheet name and the column mapping.
+     */
+    private String key() throws IOException {
+        try (FileChannel channel = FileChannel.open(workbook, StandardOpenOption.READ)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            digest.update(('\n' + FORMAT_VERSION + '\n' + sheetName + '\n' + columns).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package org.example.http;
+
+import lombok.Getter;
+import org.example.util.ConfigReaderUtil;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Sends requests without blocking the caller, through the JDK's asynchronous {@link HttpClient}.
+ * <p>
+ * At most {@code maxInFlight} requests are on the wire at any time; further requests are queued and sent as earlier
+ * ones complete. Responses are handled on a small pool of {@code async_io_threads} threads, so a single engine can
+ * drive a large request volume. Response bodies are read as they arrive by the caller's non-blocking body handler, on
+ * those same threads, so no thread is held per request in flight. Error statuses fail the request the way the rest
+ * template does.
+ */
+public class AsyncRequestEngine implements Closeable {
+
+    // Headers the JDK client computes itself and refuses to accept from the caller
+    private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        RESTRICTED_HEADERS.addAll(List.of("Connection", "Content-Length", "Expect", "Host", "Upgrade"));
+    }
+
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final int maxInFlight;
+    private final Deque<Runnable> queuedRequests = new ArrayDeque<>();
+    private int inFlight;
+
+    public AsyncRequestEngine(int maxInFlight) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(ConfigReaderUtil.getIntConfig("async_io_threads", 2), runnable -> {
+            Thread thread = new Thread(runnable, "async-request-engine-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(ConfigReaderUtil.getIntConfig("http_connect_timeout_ms", 5000)))
+                .executor(executor)
+                .build();
+        this.requestTimeout = Duration.ofMillis(ConfigReaderUtil.getIntConfig("http_socket_timeout_ms", 30000));
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Queues the request and returns immediately.
+     *
+     * @param url the fully built url, as computed by the test runner
+     * @param httpMethod the http method
+     * @param request the request headers and body, as built by the test runner
+     * @param bodyHandler reads the body of a response without an error status as it arrives, e.g. a
+     *                    {@link JsonBodySubscriber}, which must not block
+     * @return a future completed with the response once its body has been read, or failed with the
+     * {@link RestClientResponseException} of its error status
+     */
+    public <T> CompletableFuture<AsyncResponse<T>> send(String url, HttpMethod httpMethod, HttpEntity<String> request,
+                                                        HttpResponse.BodyHandler<T> bodyHandler) {
+        return send(url, httpMethod, request, status -> {
+        }, bodyHandler);
+    }
+
+    /**
+     * Queues the request and returns immediately, telling the caller the status of the response as soon as its headers
+     * arrive, before its body is read.
+     */
+    private <T> CompletableFuture<AsyncResponse<T>> send(String url, HttpMethod httpMethod, HttpEntity<String> request,
+                                                         IntConsumer onStatus,
+                                                         HttpResponse.BodyHandler<T> bodyHandler) {
+        HttpRequest httpRequest = toHttpRequest(url, httpMethod, request, requestTimeout).build();
+        CompletableFuture<AsyncResponse<T>> response = new CompletableFuture<>();
+        // The body of an error status is kept as bytes for its exception, any other is read by the caller's handler
+        HttpResponse.BodyHandler<Object> handler = responseInfo -> {
+            onStatus.accept(responseInfo.statusCode());
+            return ResponseErrors.isError(responseInfo.statusCode())
+                    ? HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), body -> body)
+                    : HttpResponse.BodySubscribers.mapping(bodyHandler.apply(responseInfo), body -> body);
+        };
+        Runnable sendRequest = () -> httpClient.sendAsync(httpRequest, handler)
+                .whenComplete((httpResponse, throwable) -> {
+                    onRequestComplete();
+                    if (throwable != null) {
+                        response.completeExceptionally(toException(httpMethod, url, throwable));
+                        return;
+                    }
+                    try {
+                        response.complete(toResponse(httpResponse));
+                    } catch (RuntimeException e) {
+                        response.completeExceptionally(e);
+                    }
+                });
+
+        boolean sendNow;
+        synchronized (queuedRequests) {
+            sendNow = inFlight < maxInFlight;
+            if (sendNow) {
+                inFlight++;
+            } else {
+                queuedRequests.add(sendRequest);
+            }
+        }
+        if (sendNow) {
+            sendRequest.run();
+        }
+        return response;
+    }
+
+    /**
+     * Queues the request once the limiter of its endpoint grants it, and returns immediately.
+     *
+     * @param limiter the limiter of the endpoint of the request
+     * @see #send(String, HttpMethod, HttpEntity, HttpResponse.BodyHandler)
+     */
+    public <T> CompletableFuture<AsyncResponse<T>> send(EndpointLimiter limiter, String url, HttpMethod httpMethod,
+                                                        HttpEntity<String> request,
+                                                        HttpResponse.BodyHandler<T> bodyHandler) {
+        // Released once the headers arrive, or when the exchange failed without a response
+        return limiter.acquire().thenCompose(permit -> send(url, httpMethod, request, permit::release, bodyHandler)
+                .whenComplete((response, throwable) -> permit.release(EndpointLimiter.FAILED)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> AsyncResponse<T> toResponse(HttpResponse<Object> httpResponse) {
+        HttpHeaders headers = new HttpHeaders();
+        httpResponse.headers().map().forEach(headers::addAll);
+        if (ResponseErrors.isError(httpResponse.statusCode())) {
+            throw ResponseErrors.of(httpResponse.statusCode(), headers, (byte[]) httpResponse.body());
+        }
+        return new AsyncResponse<>(httpResponse.statusCode(), headers, (T) httpResponse.body());
+    }
+
+    /**
+     * Fails an exchange the way the rest template does, an I/O error with a {@link ResourceAccessException}.
+     */
+    private static Throwable toException(HttpMethod httpMethod, String url, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+        if (cause instanceof IOException) {
+            return new ResourceAccessException(String.format("I/O error on %s request for \"%s\": %s", httpMethod,
+                    url, cause.getMessage()), (IOException) cause);
+        }
+        return cause;
+    }
+
+    /**
+     * Hands the slot of a completed request to the next queued request, if any.
+     */
+    private void onRequestComplete() {
+        Runnable next;
+        synchronized (queuedRequests) {
+            next = queuedRequests.poll();
+            if (next == null) {
+                inFlight--;
+            }
+        }
+        if (next != null) {
+            next.run();
+        }
+    }
+
+    /**
+     * Builds the request for the JDK client, leaving out the headers it sets itself.
+     */
+    static HttpRequest.Builder toHttpRequest(String url, HttpMethod httpMethod, HttpEntity<String> request,
+                                             Duration requestTimeout) {
+        HttpRequest.BodyPublisher body = request.hasBody()
+                ? HttpRequest.BodyPublishers.ofString(request.getBody())
+                : HttpRequest.BodyPublishers.noBody();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .method(httpMethod.name(), body);
+        for (Map.Entry<String, List<String>> header : request.getHeaders().entrySet()) {
+            if (RESTRICTED_HEADERS.contains(header.getKey())) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                builder.header(header.getKey(), value);
+            }
+        }
+        return builder;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * The status, headers and read body of a response received by the engine.
+     */
+    @Getter
+    public static class AsyncResponse<T> {
+        private final int statusCode;
+        private final HttpHeaders headers;
+        private final T body;
+
+        private AsyncResponse(int statusCode, HttpHeaders headers, T body) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package org.example.http;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.example.exception.ValidationException;
+import org.example.util.ConfigReaderUtil;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.DoublePredicate;
+
+/**
+ * Limits the requests sent to one endpoint, keyed by the endpoint key of the rows, so that parallel runs neither
+ * overload a small backend nor leave a large one idle. Every request waits for a {@link Permit} and hands it back with
+ * the status it got as soon as the response headers arrive, whichever runner sends it, so that a body failing to read
+ * or parse never counts as overload.
+ * <p>
+ * The limits are read from {@code limit_mode}, {@code limit_rps} and {@code limit_max_concurrency}, each overridden
+ * for one endpoint by the same key suffixed with {@code .<endpoint key>}, 0 meaning no limit:
+ * <ul>
+ *     <li>{@code static} sends at most {@code limit_rps} requests per second and {@code limit_max_concurrency} at
+ *     once.</li>
+ *     <li>{@code aimd} also sends at most {@code limit_rps} requests per second, and adapts the number it sends at
+ *     once from {@code limit_aimd_initial}: it grows by one per round of requests answered in time while at least
+ *     half of it is in use, and is multiplied by {@code limit_aimd_backoff} on a 429, a 503, an exchange failed
+ *     without a response or a time to the response headers above {@code limit_aimd_latency_tolerance} times the
+ *     lowest seen, at most once per round and never below {@code limit_aimd_min} nor above
+ *     {@code limit_max_concurrency}, or 256 when unset.</li>
+ * </ul>
+ * Waiting requests are granted in order. Nobody blocks while waiting, so the asynchronous runners chain their requests
+ * on {@link #acquire()} and the blocking one joins it.
+ */
+@Log4j2
+public final class EndpointLimiter {
+
+    // Status of an exchange that got no response
+    public static final int FAILED = -1;
+
+    private static final Map<String, EndpointLimiter> LIMITERS = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "endpoint-limiter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final int DEFAULT_AIMD_MAX = 256;
+
+    @Getter
+    private final String endPointKey;
+    @Getter
+    private final boolean adaptive;
+    @Getter
+    private final double rps;
+    private final long intervalNanos;
+    private final double minLimit;
+    private final double maxLimit;
+    private final double backoff;
+    private final double latencyTolerance;
+
+    private final Deque<Waiter> waiting = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private long nextSendNanos;
+    private boolean dispatchScheduled;
+    private long lastDecreaseNanos;
+    private long minLatencyNanos = Long.MAX_VALUE;
+
+    private long requests;
+    private long overloaded;
+    private long decreases;
+    private long totalQueueNanos;
+    private long maxQueueNanos;
+    private double lowestLimit;
+    private double highestLimit;
+
+    private EndpointLimiter(String endPointKey) {
+        this.endPointKey = endPointKey;
+        String mode = config("limit_mode", "static").trim().toLowerCase(Locale.ROOT);
+        if (!mode.equals("static") && !mode.equals("aimd")) {
+            throw invalidConfig("limit_mode", mode);
+        }
+        adaptive = mode.equals("aimd");
+        rps = parseDouble("limit_rps", config("limit_rps", "0"), value -> value >= 0);
+        intervalNanos = rps > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rps) : 0;
+        int maxConcurrency;
+        String maxConcurrencyValue = config("limit_max_concurrency", "0");
+        try {
+            maxConcurrency = Integer.parseInt(maxConcurrencyValue.trim());
+        } catch (NumberFormatException e) {
+            throw invalidConfig("limit_max_concurrency", maxConcurrencyValue);
+        }
+        if (maxConcurrency < 0) {
+            throw invalidConfig("limit_max_concurrency", maxConcurrencyValue);
+        }
+        if (adaptive) {
+            minLimit = Math.max(1, ConfigReaderUtil.getIntConfig("limit_aimd_min", 1));
+            maxLimit = Math.max(minLimit, maxConcurrency > 0 ? maxConcurrency : DEFAULT_AIMD_MAX);
+            limit = Math.min(maxLimit, Math.max(minLimit, ConfigReaderUtil.getIntConfig("limit_aimd_initial", 4)));
+        } else {
+            minLimit = maxConcurrency > 0 ? maxConcurrency : Integer.MAX_VALUE;
+            maxLimit = minLimit;
+            limit = minLimit;
+        }
+        // A backoff of 1 or more would keep or grow the limit on overload, a tolerance of 1 or less count every request
+        backoff = parseDouble("limit_aimd_backoff", ConfigReaderUtil.getConfig("limit_aimd_backoff", "0.5"),
+                value -> value > 0 && value < 1);
+        latencyTolerance = parseDouble("limit_aimd_latency_tolerance",
+                ConfigReaderUtil.getConfig("limit_aimd_latency_tolerance", "4"), value -> value > 1);
+        lowestLimit = limit;
+        highestLimit = limit;
+        nextSendNanos = System.nanoTime();
+        lastDecreaseNanos = nextSendNanos - 1;
+    }
+
+    /**
+     * Returns the limiter of the endpoint, shared by every runner of the suite.
+     */
+    public static EndpointLimiter forEndpoint(String endPointKey) {
+        return LIMITERS.computeIfAbsent(endPointKey, EndpointLimiter::new);
+    }
+
+    /**
+     * Returns the limiters used since the last {@link #reset()}.
+     */
+    public static Collection<EndpointLimiter> getLimiters() {
+        return new ArrayList<>(LIMITERS.values());
+    }
+
+    /**
+     * Forgets the limiters, so that the next suite starts from the configured limits.
+     */
+    public static void reset() {
+        LIMITERS.clear();
+    }
+
+    /**
+     * Returns the status of the response an exchange failed on, or {@link #FAILED} when it got none.
+     */
+    public static int statusOf(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RestClientResponseException) {
+                return ((RestClientResponseException) cause).getRawStatusCode();
+            }
+        }
+        return FAILED;
+    }
+
+    public boolean isLimited() {
+        return adaptive || rps > 0 || limit < Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns a future completed with a permit once the request may be sent.
+     */
+    public CompletableFuture<Permit> acquire() {
+        Waiter waiter = new Waiter(System.nanoTime());
+        synchronized (this) {
+            waiting.add(waiter);
+        }
+        dispatch();
+        return waiter.permit;
+    }
+
+    /**
+     * Grants the waiting requests the limits allow now, in order, and wakes up again when the rate holds the next one
+     * back. The permits are handed out outside the lock, as they run whatever the requests chained on them.
+     */
+    private void dispatch() {
+        List<Waiter> granted = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (this) {
+            while (!waiting.isEmpty() && inFlight < (int) limit) {
+                if (intervalNanos > 0) {
+                    if (nextSendNanos - now > 0) {
+                        if (!dispatchScheduled) {
+                            dispatchScheduled = true;
+                            SCHEDULER.schedule(() -> {
+                                synchronized (this) {
+                                    dispatchScheduled = false;
+                                }
+                                dispatch();
+                            }, nextSendNanos - now, TimeUnit.NANOSECONDS);
+                        }
+                        break;
+                    }
+                    // A wake-up a little late keeps to the schedule, a limiter left idle starts it over
+                    nextSendNanos = (now - nextSendNanos > intervalNanos ? now : nextSendNanos) + intervalNanos;
+                }
+                Waiter waiter = waiting.poll();
+                long queueNanos = now - waiter.enqueuedNanos;
+                totalQueueNanos += queueNanos;
+                maxQueueNanos = Math.max(maxQueueNanos, queueNanos);
+                requests++;
+                inFlight++;
+                granted.add(waiter);
+            }
+        }
+        granted.forEach(waiter -> waiter.permit.complete(new Permit(now)));
+    }
+
+    /**
+     * Frees the slot of the permit and, in {@code aimd} mode, adapts the limit to how the request went.
+     */
+    private void release(Permit permit, int status) {
+        long now = System.nanoTime();
+        long latencyNanos = now - permit.grantedNanos;
+        synchronized (this) {
+            inFlight--;
+            boolean overload = status == 429 || status == 503 || status == FAILED;
+            if (overload) {
+                overloaded++;
+            } else {
+                minLatencyNanos = Math.min(minLatencyNanos, latencyNanos);
+            }
+            if (adaptive) {
+                if (overload || latencyNanos > latencyTolerance * minLatencyNanos) {
+                    // Requests sent before the last decrease already had their say in it
+                    if (permit.grantedNanos - lastDecreaseNanos > 0) {
+                        limit = Math.max(minLimit, limit * backoff);
+                        lastDecreaseNanos = now;
+                        decreases++;
+                    }
+                } else if (2 * (inFlight + 1) >= limit) {
+                    // Only a limit in use is known to hold, so an idle one does not grow
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+                lowestLimit = Math.min(lowestLimit, limit);
+                highestLimit = Math.max(highestLimit, limit);
+            }
+        }
+        dispatch();
+    }
+
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+    public synchronized double getLowestLimit() {
+        return lowestLimit;
+    }
+
+    public synchronized double getHighestLimit() {
+        return highestLimit;
+    }
+
+    public synchronized long getRequests() {
+        return requests;
+    }
+
+    public synchronized long getOverloaded() {
+        return overloaded;
+    }
+
+    public synchronized long getDecreases() {
+        return decreases;
+    }
+
+    public synchronized int getWaiting() {
+        return waiting.size();
+    }
+
+    public synchronized double getMeanQueueMillis() {
+        return requests == 0 ? 0 : totalQueueNanos / 1e6 / requests;
+    }
+
+    public synchronized double getMaxQueueMillis() {
+        return maxQueueNanos / 1e6;
+    }
+
+    private String config(String key, String defaultValue) {
+        return ConfigReaderUtil.getConfig(key + '.' + endPointKey, ConfigReaderUtil.getConfig(key, defaultValue));
+    }
+
+    /**
+     * Parses a finite number of the config, failing when it is not one or not in the range of its key.
+     */
+    private double parseDouble(String key, String value, DoublePredicate inRange) {
+        double number;
+        try {
+            number = Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw invalidConfig(key, value);
+        }
+        if (!Double.isFinite(number) || !inRange.test(number)) {
+            throw invalidConfig(key, value);
+        }
+        return number;
+    }
+
+    private ValidationException invalidConfig(String key, String value) {
+        String msg = String.format("%s %s of endpoint %s in config is invalid", key, value, endPointKey);
+        log.error(msg);
+        return new ValidationException(msg);
+    }
+
+    private static final class Waiter {
+        private final long enqueuedNanos;
+        private final CompletableFuture<Permit> permit = new CompletableFuture<>();
+
+        private Waiter(long enqueuedNanos) {
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    /**
+     * Leave to send one request, released with the status it got as soon as the response headers arrive, or once the
+     * exchange failed without a response.
+     */
+    public final class Permit {
+        private final long grantedNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long grantedNanos) {
+            this.grantedNanos = grantedNanos;
+        }
+
+        /**
+         * Releases the permit; only the first call counts, so a caller may release it again on failure whether or not
+         * the response arrived.
+         *
+         * @param status the status of the response, or {@link #FAILED} when the exchange got none
+         */
+        public void release(int status) {
+            if (released.compareAndSet(false, true)) {
+                EndpointLimiter.this.release(this, status);
+            }
+        }
+    }
+}
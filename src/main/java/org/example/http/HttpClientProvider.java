@@ -0,0 +1,197 @@
+package org.example.http;
+
+import lombok.extern.log4j.Log4j2;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+import org.example.listener.PhaseTimings;
+import org.example.replay.HttpMode;
+import org.example.replay.RecordingInterceptor;
+import org.example.replay.RecordingStore;
+import org.example.util.ConfigReaderUtil;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the suite scoped {@link RestTemplate} used to fire requests. It is backed by a pooled Apache HttpClient, so
+ * connections are kept alive and reused across tests, and it is safe to share between parallel test threads. With
+ * {@code http_mode=record} every exchange is saved to the {@link RecordingStore}.
+ * <p>
+ * Pool sizes and timeouts are read from the {@code http_*} keys in {@code config.properties}.
+ * <p>
+ * The DNS lookup, connect, request send and time to first byte of every exchange are recorded as
+ * {@link PhaseTimings} of the running test. A connection reused from the pool has no lookup or connect phase.
+ */
+@Log4j2
+public final class HttpClientProvider {
+
+    private static volatile HttpClientProvider instance;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+
+    private HttpClientProvider() {
+        connectionManager = new TimedConnectionManager();
+        connectionManager.setMaxTotal(ConfigReaderUtil.getIntConfig("http_max_connections_total", 200));
+        connectionManager.setDefaultMaxPerRoute(ConfigReaderUtil.getIntConfig("http_max_connections_per_route", 50));
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(ConfigReaderUtil.getIntConfig("http_connect_timeout_ms", 5000))
+                .setConnectionRequestTimeout(ConfigReaderUtil.getIntConfig("http_connection_request_timeout_ms", 5000))
+                .setSocketTimeout(ConfigReaderUtil.getIntConfig("http_socket_timeout_ms", 30000))
+                .build();
+        long idleEvictionMs = ConfigReaderUtil.getIntConfig("http_idle_eviction_ms", 30000);
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setRequestExecutor(new TimedRequestExecutor())
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(ConfigReaderUtil.getIntConfig("http_keep_alive_ms", 30000)))
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEvictionMs, TimeUnit.MILLISECONDS)
+                .build();
+        restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        if (HttpMode.fromConfig() == HttpMode.RECORD) {
+            restTemplate.getInterceptors().add(new RecordingInterceptor(RecordingStore.fromConfig()));
+        }
+    }
+
+    /**
+     * Returns the shared rest template, creating the underlying connection pool on first use.
+     *
+     * @return the suite scoped rest template
+     */
+    public static RestTemplate getRestTemplate() {
+        HttpClientProvider provider = instance;
+        if (provider == null) {
+            synchronized (HttpClientProvider.class) {
+                provider = instance;
+                if (provider == null) {
+                    provider = new HttpClientProvider();
+                    instance = provider;
+                }
+            }
+        }
+        return provider.restTemplate;
+    }
+
+    /**
+     * Logs the connection pool statistics and releases the pooled connections. The next call to
+     * {@link #getRestTemplate()} creates a new pool.
+     */
+    public static synchronized void close() {
+        if (instance == null) {
+            return;
+        }
+        PoolStats stats = instance.connectionManager.getTotalStats();
+        log.info("HTTP connection pool: {} leased, {} available, {} pending, {} max", stats.getLeased(),
+                stats.getAvailable(), stats.getPending(), stats.getMax());
+        try {
+            instance.httpClient.close();
+        } catch (IOException e) {
+            log.error("Unable to close the HTTP client");
+        }
+        instance = null;
+    }
+
+    /**
+     * Honours the keep-alive duration announced by the server and falls back to the configured duration otherwise.
+     */
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long defaultKeepAliveMs) {
+        return (response, context) -> {
+            long keepAliveMs = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAliveMs > 0 ? keepAliveMs : defaultKeepAliveMs;
+        };
+    }
+
+    /**
+     * Records the {@code connect} phase, which includes the DNS lookup, also recorded on its own as {@code dnsLookup},
+     * and the TLS handshake of https connections.
+     */
+    private static final class TimedConnectionManager extends PoolingHttpClientConnectionManager {
+
+        private TimedConnectionManager() {
+            super(socketFactoryRegistry(), timedDnsResolver());
+        }
+
+        @Override
+        public void connect(HttpClientConnection managedConn, HttpRoute route, int connectTimeout, HttpContext context)
+                throws IOException {
+            long phaseStart = System.nanoTime();
+            try {
+                super.connect(managedConn, route, connectTimeout, context);
+            } finally {
+                PhaseTimings.record("connect", phaseStart);
+            }
+        }
+
+        private static Registry<ConnectionSocketFactory> socketFactoryRegistry() {
+            return RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                    .register("https", SSLConnectionSocketFactory.getSocketFactory())
+                    .build();
+        }
+
+        private static DnsResolver timedDnsResolver() {
+            return host -> {
+                long phaseStart = System.nanoTime();
+                try {
+                    return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+                } finally {
+                    PhaseTimings.record("dnsLookup", phaseStart);
+                }
+            };
+        }
+    }
+
+    /**
+     * Records the {@code sendRequest} phase, up to the last byte of the request, and the {@code timeToFirstByte}
+     * phase, up to the receipt of the response headers. The body is read afterwards, within the {@code exchange}.
+     */
+    private static final class TimedRequestExecutor extends HttpRequestExecutor {
+
+        @Override
+        protected HttpResponse doSendRequest(HttpRequest request, HttpClientConnection conn, HttpContext context)
+                throws IOException, HttpException {
+            long phaseStart = System.nanoTime();
+            try {
+                return super.doSendRequest(request, conn, context);
+            } finally {
+                PhaseTimings.record("sendRequest", phaseStart);
+            }
+        }
+
+        @Override
+        protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection conn, HttpContext context)
+                throws HttpException, IOException {
+            long phaseStart = System.nanoTime();
+            try {
+                return super.doReceiveResponse(request, conn, context);
+            } finally {
+                PhaseTimings.record("timeToFirstByte", phaseStart);
+            }
+        }
+    }
+}
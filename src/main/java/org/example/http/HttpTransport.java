@@ -0,0 +1,61 @@
+package org.example.http;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.IntConsumer;
+
+/**
+ * Sends the requests of the blocking runner, as chosen by {@code http_transport}: {@code spring} through the pooled
+ * rest template of {@link HttpClientProvider}, or {@code jdk} through the JDK's {@link java.net.http.HttpClient} over
+ * HTTP/2. Every transport is shared by the test threads and fails the same way, with the {@link RestClientException}
+ * the rest template throws, e.g. on an error status.
+ */
+public interface HttpTransport extends Closeable {
+
+    /**
+     * Sends the request and reads the body of its response, decompressed, while it streams in.
+     *
+     * @param url the fully built url, as rendered by the row
+     * @param httpMethod the http method
+     * @param request the request headers and body, as rendered by the row
+     * @param bodyReader reads the response body, which it need not close
+     * @return the status, headers and read body of the response
+     * @throws RestClientException when the exchange fails or the response has an error status
+     */
+    default <T> ResponseEntity<T> exchange(String url, HttpMethod httpMethod, HttpEntity<String> request,
+                                           BodyReader<T> bodyReader) {
+        return exchange(url, httpMethod, request, status -> {
+        }, bodyReader);
+    }
+
+    /**
+     * Sends the request like {@link #exchange(String, HttpMethod, HttpEntity, BodyReader)}, telling the caller the
+     * status of the response as soon as its headers arrive, before its body is read.
+     *
+     * @param onStatus called with the status of a response without an error status before its body is read; an error
+     *                 status fails the exchange with a {@link org.springframework.web.client.RestClientResponseException}
+     *                 carrying it instead
+     */
+    <T> ResponseEntity<T> exchange(String url, HttpMethod httpMethod, HttpEntity<String> request, IntConsumer onStatus,
+                                   BodyReader<T> bodyReader);
+
+    /**
+     * Releases the connections of the transport.
+     */
+    @Override
+    void close();
+
+    /**
+     * Reads a response body from its stream.
+     */
+    @FunctionalInterface
+    interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.http;
+
+import lombok.extern.log4j.Log4j2;
+import org.example.exception.ValidationException;
+import org.example.util.ConfigReaderUtil;
+
+import java.util.Locale;
+
+/**
+ * Holds the suite scoped {@link HttpTransport} chosen by {@code http_transport}, {@code spring} by default.
+ */
+@Log4j2
+public final class HttpTransports {
+
+    private static volatile HttpTransport instance;
+
+    private HttpTransports() {
+    }
+
+    /**
+     * Returns the transport of the suite, creating it on first use.
+     */
+    public static HttpTransport get() {
+        HttpTransport transport = instance;
+        if (transport == null) {
+            synchronized (HttpTransports.class) {
+                transport = instance;
+                if (transport == null) {
+                    transport = create(ConfigReaderUtil.getConfig("http_transport", "spring").trim());
+                    instance = transport;
+                }
+            }
+        }
+        return transport;
+    }
+
+    /**
+     * Closes the transport of the suite, if any. The next call to {@link #get()} creates a new one.
+     */
+    public static synchronized void close() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    private static HttpTransport create(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "spring":
+                return new SpringHttpTransport();
+            case "jdk":
+                return new JdkHttpTransport();
+            default:
+                String msg = String.format("http_transport %s in config is invalid", name);
+                log.error(msg);
+                throw new ValidationException(msg);
+        }
+    }
+}
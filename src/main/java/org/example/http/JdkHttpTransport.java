@@ -0,0 +1,157 @@
+package org.example.http;
+
+import org.example.listener.PhaseTimings;
+import org.example.replay.HttpMode;
+import org.example.replay.RecordingStore;
+import org.example.util.ConfigReaderUtil;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Sends requests through the JDK's {@link HttpClient} over HTTP/2, which multiplexes the requests of all test threads
+ * to an origin over one connection, falling back to HTTP/1.1 for servers that do not speak HTTP/2. Unless the row sets
+ * its own {@code Accept-Encoding}, gzip or deflate compressed responses are asked for, and they are decompressed as they
+ * stream in; a response in any other encoding fails the exchange.
+ * <p>
+ * The client exposes no connection events, so of the phases of an exchange only the time to first byte, up to the
+ * response headers, is recorded. With {@code http_mode=record} every exchange is saved to the {@link RecordingStore}.
+ */
+public class JdkHttpTransport implements HttpTransport {
+
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final RecordingStore recordingStore;
+
+    public JdkHttpTransport() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "jdk-http-transport-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(ConfigReaderUtil.getIntConfig("http_connect_timeout_ms", 5000)))
+                .executor(executor)
+                .build();
+        requestTimeout = Duration.ofMillis(ConfigReaderUtil.getIntConfig("http_socket_timeout_ms", 30000));
+        recordingStore = HttpMode.fromConfig() == HttpMode.RECORD ? RecordingStore.fromConfig() : null;
+    }
+
+    @Override
+    public <T> ResponseEntity<T> exchange(String url, HttpMethod httpMethod, HttpEntity<String> request,
+                                          IntConsumer onStatus, BodyReader<T> bodyReader) {
+        HttpRequest httpRequest;
+        try {
+            HttpRequest.Builder builder = AsyncRequestEngine.toHttpRequest(url, httpMethod, request, requestTimeout);
+            if (!request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+                builder.header(HttpHeaders.ACCEPT_ENCODING, ACCEPT_ENCODING);
+            }
+            httpRequest = builder.build();
+        } catch (IllegalArgumentException e) {
+            // The JDK client refuses some urls, header names and values the rest template sends as they are
+            throw new RestClientException(String.format("Invalid %s request for \"%s\": %s", httpMethod, url,
+                    e.getMessage()), e);
+        }
+        try {
+            long phaseStart = System.nanoTime();
+            HttpResponse<InputStream> response = httpClient.send(httpRequest,
+                    HttpResponse.BodyHandlers.ofInputStream());
+            PhaseTimings.record("timeToFirstByte", phaseStart);
+
+            HttpHeaders headers = new HttpHeaders();
+            response.headers().map().forEach(headers::addAll);
+            boolean error = ResponseErrors.isError(response.statusCode());
+            if (!error) {
+                onStatus.accept(response.statusCode());
+            }
+            try (InputStream rawBody = response.body();
+                 InputStream body = decode(rawBody, headers.getFirst(HttpHeaders.CONTENT_ENCODING))) {
+                if (body != rawBody) {
+                    // The body handed on is decoded, so its encoding and length no longer apply
+                    headers.remove(HttpHeaders.CONTENT_ENCODING);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                }
+                InputStream responseBody = body;
+                if (recordingStore != null || error) {
+                    byte[] bytes = body.readAllBytes();
+                    if (recordingStore != null) {
+                        record(httpRequest, request, response.statusCode(), headers, bytes);
+                    }
+                    if (error) {
+                        throw ResponseErrors.of(response.statusCode(), headers, bytes);
+                    }
+                    responseBody = new ByteArrayInputStream(bytes);
+                }
+                return ResponseEntity.status(response.statusCode()).headers(headers)
+                        .body(bodyReader.read(responseBody));
+            }
+        } catch (IOException e) {
+            throw new ResourceAccessException(String.format("I/O error on %s request for \"%s\": %s", httpMethod, url,
+                    e.getMessage()), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException(String.format("Interrupted %s request for \"%s\"", httpMethod, url));
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the body decoded from its content encoding, or the body itself when it is not encoded.
+     *
+     * @throws IOException when the body is encoded in a way that cannot be decoded, e.g. {@code br} asked for by the
+     *                     {@code Accept-Encoding} of the row
+     */
+    private static InputStream decode(InputStream body, String contentEncoding) throws IOException {
+        if (contentEncoding == null) {
+            return body;
+        }
+        switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case "":
+            case "identity":
+                return body;
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(body);
+            case "deflate":
+                return new InflaterInputStream(body);
+            default:
+                throw new IOException(String.format("response Content-Encoding %s is not supported, only gzip and " +
+                        "deflate are", contentEncoding));
+        }
+    }
+
+    private void record(HttpRequest httpRequest, HttpEntity<String> request, int status, HttpHeaders headers,
+                        byte[] body) {
+        recordingStore.save(new RecordingStore.Recording(httpRequest.method(), httpRequest.uri().toString(),
+                new HttpHeaders(request.getHeaders()), request.hasBody() ? request.getBody() : "", status, headers,
+                new String(body, StandardCharsets.UTF_8)));
+    }
+}
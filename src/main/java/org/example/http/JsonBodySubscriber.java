@@ -0,0 +1,144 @@
+package org.example.http;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Parses a response body of the {@link AsyncRequestEngine} as JSON while it arrives, through Jackson's non-blocking
+ * parser on the thread delivering the bytes, so that no thread waits for a body. Like {@link SizeLimitedInputStream},
+ * it fails once the body grows past a maximum number of bytes.
+ */
+public class JsonBodySubscriber implements HttpResponse.BodySubscriber<JsonNode> {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final long maxBytes;
+    private final JsonParser parser;
+    private final TokenBuffer tokens;
+    private final CompletableFuture<JsonNode> body = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+    private long bytesRead;
+
+    private JsonBodySubscriber(long maxBytes, boolean parse) {
+        this.maxBytes = maxBytes;
+        if (parse) {
+            try {
+                this.parser = OBJECT_MAPPER.getFactory().createNonBlockingByteBufferParser();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.tokens = new TokenBuffer(parser);
+        } else {
+            this.parser = null;
+            this.tokens = null;
+        }
+    }
+
+    /**
+     * Returns a handler parsing every body as JSON, a blank body as a missing node.
+     *
+     * @param maxBytes the maximum number of bytes of a body, or 0 for no limit
+     */
+    public static HttpResponse.BodyHandler<JsonNode> parsing(long maxBytes) {
+        return responseInfo -> new JsonBodySubscriber(maxBytes, true);
+    }
+
+    /**
+     * Returns a handler reading every body to the end without parsing it, completing with null, so that the connection
+     * can be reused.
+     *
+     * @param maxBytes the maximum number of bytes of a body, or 0 for no limit
+     */
+    public static HttpResponse.BodyHandler<JsonNode> discarding(long maxBytes) {
+        return responseInfo -> new JsonBodySubscriber(maxBytes, false);
+    }
+
+    @Override
+    public CompletionStage<JsonNode> getBody() {
+        return body;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+        if (body.isDone()) {
+            return;
+        }
+        try {
+            for (ByteBuffer buffer : buffers) {
+                bytesRead += buffer.remaining();
+                if (maxBytes > 0 && bytesRead > maxBytes) {
+                    throw new IOException(String.format("response body exceeds the maximum of %d bytes", maxBytes));
+                }
+                if (parser != null) {
+                    ((ByteBufferFeeder) parser.getNonBlockingInputFeeder()).feedInput(buffer);
+                    copyTokens();
+                }
+            }
+        } catch (IOException e) {
+            subscription.cancel();
+            body.completeExceptionally(e);
+            return;
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        body.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (body.isDone()) {
+            return;
+        }
+        if (parser == null) {
+            body.complete(null);
+            return;
+        }
+        try {
+            ((ByteBufferFeeder) parser.getNonBlockingInputFeeder()).endOfInput();
+            copyTokens();
+            body.complete(tokens.firstToken() == null
+                    ? MissingNode.getInstance()
+                    : OBJECT_MAPPER.readTree(tokens.asParser()));
+        } catch (IOException e) {
+            body.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Buffers the tokens parsed from the bytes fed so far, until the parser needs more.
+     */
+    private void copyTokens() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                // Copied as is, a float would be read back as a BigDecimal rather than the double readTree gives
+                tokens.writeNumber(parser.getDoubleValue());
+            } else {
+                tokens.copyCurrentEvent(parser);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.http;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fails error responses received outside the rest template the way its default error handler does, so that a row
+ * passes or fails the same whichever client sent it.
+ */
+final class ResponseErrors {
+
+    private ResponseErrors() {
+    }
+
+    /**
+     * Returns whether the rest template treats the status as an error: any 4xx or 5xx status, known or not.
+     */
+    static boolean isError(int statusCode) {
+        HttpStatus.Series series = HttpStatus.Series.resolve(statusCode);
+        return series == HttpStatus.Series.CLIENT_ERROR || series == HttpStatus.Series.SERVER_ERROR;
+    }
+
+    /**
+     * Returns the exception the rest template throws for an error status.
+     */
+    static RestClientResponseException of(int statusCode, HttpHeaders headers, byte[] body) {
+        HttpStatus status = HttpStatus.resolve(statusCode);
+        if (status == null) {
+            return new UnknownHttpStatusCodeException(statusCode, "", headers, body, StandardCharsets.UTF_8);
+        }
+        if (status.is4xxClientError()) {
+            return HttpClientErrorException.create(status, status.getReasonPhrase(), headers, body,
+                    StandardCharsets.UTF_8);
+        }
+        return HttpServerErrorException.create(status, status.getReasonPhrase(), headers, body,
+                StandardCharsets.UTF_8);
+    }
+}
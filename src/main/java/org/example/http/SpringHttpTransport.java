@@ -0,0 +1,35 @@
+package org.example.http;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Sends requests through the pooled rest template of {@link HttpClientProvider}, over HTTP/1.1. The Apache client
+ * under it asks for gzip or deflate compressed responses and decompresses them, and records the phases of every
+ * exchange.
+ */
+public class SpringHttpTransport implements HttpTransport {
+
+    @Override
+    public <T> ResponseEntity<T> exchange(String url, HttpMethod httpMethod, HttpEntity<String> request,
+                                          IntConsumer onStatus, BodyReader<T> bodyReader) {
+        RestTemplate restTemplate = HttpClientProvider.getRestTemplate();
+        // The error handler of the rest template has failed error statuses by the time the response is extracted
+        return restTemplate.execute(url, httpMethod, restTemplate.httpEntityCallback(request, String.class),
+                response -> {
+                    onStatus.accept(response.getRawStatusCode());
+                    // By its raw value, as a status without error need not be known to HttpStatus
+                    return ResponseEntity.status(response.getRawStatusCode()).headers(response.getHeaders())
+                            .body(bodyReader.read(response.getBody()));
+                });
+    }
+
+    @Override
+    public void close() {
+        HttpClientProvider.close();
+    }
+}
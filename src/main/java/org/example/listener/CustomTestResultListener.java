@@ -1,30 +1,64 @@
 package org.example.listener;
 
 import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.Level;
+import org.example.http.HttpTransports;
+import org.example.replay.ReplayServer;
+import org.example.responsehandler.SchemaCache;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 
 @Log4j2
-public class CustomTestResultListener implements ITestListener {
+public class CustomTestResultListener implements ITestListener, ISuiteListener {
+
+    private final PhaseTimingReport phaseTimingReport = new PhaseTimingReport();
+    private final ShardResultReport shardResultReport = new ShardResultReport();
+    private final DurationReport durationReport = new DurationReport();
+    private final LimiterReport limiterReport = new LimiterReport();
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        TestLog.start(result);
+        PhaseTimings.start(result);
+    }
 
     @Override
     public void onTestSuccess(ITestResult result) {
-        log.info("*********************************** Test Case Result: PASS ***********************************");
-        log.info("*********************************** Ending Test ***********************************");
+        phaseTimingReport.add(result, "PASS");
+        shardResultReport.add(result, "PASS");
+        durationReport.add(result, "PASS");
+        TestLog.flush(result, Level.INFO, "PASS");
     }
 
     @Override
     public void onTestFailure(ITestResult result) {
-        log.error("************************************ Failure reason: ************************************");
-        log.error(result.getThrowable().getMessage());
-        log.error("*********************************** Test Case Result: FAIL ***********************************");
-        log.error("*********************************** Ending Test ***********************************");
+        phaseTimingReport.add(result, "FAIL");
+        shardResultReport.add(result, "FAIL");
+        durationReport.add(result, "FAIL");
+        TestLog.flush(result, Level.ERROR, "FAIL");
     }
 
     @Override
     public void onTestSkipped(ITestResult result) {
-        log.error("*********************************** Test Case Result: SKIPPED ***********************************");
-        log.error("*********************************** Ending Test ***********************************");
+        phaseTimingReport.add(result, "SKIPPED");
+        shardResultReport.add(result, "SKIPPED");
+        durationReport.add(result, "SKIPPED");
+        TestLog.flush(result, Level.ERROR, "SKIPPED");
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        phaseTimingReport.write(suite.getName());
+        shardResultReport.write(suite.getName());
+        durationReport.write(suite.getName());
+        limiterReport.write(suite.getName());
+        SchemaCache schemaCache = SchemaCache.getInstance();
+        log.info("Schema cache: {} hits, {} disk hits, {} misses, {} cached schemas", schemaCache.getHits(),
+                schemaCache.getDiskHits(), schemaCache.getMisses(), schemaCache.size());
+        HttpTransports.close();
+        ReplayServer.stop();
     }
 
 }
@@ -0,0 +1,109 @@
+package org.example.listener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.log4j.Log4j2;
+import org.example.TestRunner;
+import org.example.databean.TestData;
+import org.example.schedule.DurationSchedule;
+import org.example.schedule.DurationStore;
+import org.example.util.ConfigReaderUtil;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the duration of every row run by the {@link TestRunner} in the {@link DurationStore}, and compares the
+ * makespan of every test of the suite with the one its {@link DurationSchedule} predicted, in the log and in
+ * {@code makespan.json} in {@code phase_report_dir}.
+ */
+@Log4j2
+class DurationReport {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Map<String, Makespan> makespans = new LinkedHashMap<>();
+
+    synchronized void add(ITestResult result, String status) {
+        ITestContext context = result.getTestContext();
+        makespans.computeIfAbsent(context.getName(), name -> new Makespan()).add(result,
+                DurationSchedule.get(context));
+        Object[] parameters = result.getParameters();
+        // The tests of the other runners wait on requests sent ahead of them, so their durations predict nothing, and
+        // cached passes took no time; recording them would also keep their passes from ever expiring
+        if (TestRunner.class.equals(result.getTestClass().getRealClass()) && parameters.length > 1
+                && parameters[1] instanceof TestData && !"SKIPPED".equals(status)
+                && !((TestData) parameters[1]).isCached()) {
+            TestData testData = (TestData) parameters[1];
+            // The time spent waiting on dependencies or the limiter depends on the other rows, not on this one
+            long durationMillis = result.getEndMillis() - result.getStartMillis()
+                    - TimeUnit.NANOSECONDS.toMillis(PhaseTimings.waitingNanos(result));
+            DurationStore.getInstance().record(testData.getId(), testData.getContentHash(),
+                    Math.max(durationMillis, 0), status);
+        }
+    }
+
+    /**
+     * Saves the durations recorded so far and reports the makespan, then starts over for the next suite.
+     */
+    synchronized void write(String suiteName) {
+        DurationStore.getInstance().save();
+        if (makespans.isEmpty()) {
+            return;
+        }
+        ObjectNode report = OBJECT_MAPPER.createObjectNode();
+        report.put("suite", suiteName);
+        ArrayNode tests = report.putArray("tests");
+        makespans.forEach((testName, makespan) -> tests.add(makespan.report(suiteName, testName)));
+        makespans.clear();
+
+        File reportFile = new File(ConfigReaderUtil.getConfig("phase_report_dir", "target"), "makespan.json");
+        Reports.writeReport(reportFile, report);
+    }
+
+    /**
+     * The actual and predicted makespan of the rows of one test.
+     */
+    private static class Makespan {
+        private int tests;
+        private long startMillis = Long.MAX_VALUE;
+        private long endMillis = Long.MIN_VALUE;
+        private DurationSchedule schedule;
+
+        void add(ITestResult result, DurationSchedule schedule) {
+            tests++;
+            startMillis = Math.min(startMillis, result.getStartMillis());
+            endMillis = Math.max(endMillis, result.getEndMillis());
+            if (schedule != null) {
+                this.schedule = schedule;
+            }
+        }
+
+        ObjectNode report(String suiteName, String testName) {
+            long actualMillis = endMillis - startMillis;
+            ObjectNode report = OBJECT_MAPPER.createObjectNode();
+            report.put("test", testName);
+            report.put("tests", tests);
+            report.put("actualMs", actualMillis);
+            if (schedule == null) {
+                log.info("Makespan of test {} of suite {}: {} ms, rows run in data order", testName, suiteName,
+                        actualMillis);
+                return report;
+            }
+            report.put("threads", schedule.getWorkers());
+            report.put("rowsWithDuration", schedule.getKnownRows());
+            report.put("predictedMs", schedule.getPredictedMillis());
+            report.put("dataOrderPredictedMs", schedule.getDataOrderPredictedMillis());
+            log.info(String.format("Makespan of test %s of suite %s: %d ms, predicted %.1f ms longest first against " +
+                            "%.1f ms in data order on %d threads (%d of %d rows with a recorded duration)", testName,
+                    suiteName, actualMillis, schedule.getPredictedMillis(), schedule.getDataOrderPredictedMillis(),
+                    schedule.getWorkers(), schedule.getKnownRows(), schedule.getRows()));
+            return report;
+        }
+    }
+}
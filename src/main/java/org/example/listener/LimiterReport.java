@@ -0,0 +1,69 @@
+package org.example.listener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.log4j.Log4j2;
+import org.example.http.EndpointLimiter;
+import org.example.util.ConfigReaderUtil;
+
+import java.io.File;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reports the {@link EndpointLimiter} of every limited endpoint of a suite, its current and extreme limits and the
+ * time requests queued for it, in the log and in {@code limits.json} in {@code phase_report_dir}.
+ */
+@Log4j2
+class LimiterReport {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * Writes the report of the limiters used so far, then resets them for the next suite.
+     */
+    void write(String suiteName) {
+        List<EndpointLimiter> limiters = EndpointLimiter.getLimiters().stream()
+                .filter(EndpointLimiter::isLimited)
+                .sorted(Comparator.comparing(EndpointLimiter::getEndPointKey))
+                .collect(Collectors.toList());
+        EndpointLimiter.reset();
+        if (limiters.isEmpty()) {
+            return;
+        }
+        ObjectNode report = OBJECT_MAPPER.createObjectNode();
+        report.put("suite", suiteName);
+        ArrayNode endpoints = report.putArray("endpoints");
+        for (EndpointLimiter limiter : limiters) {
+            ObjectNode endpoint = endpoints.addObject();
+            endpoint.put("endpoint", limiter.getEndPointKey());
+            endpoint.put("mode", limiter.isAdaptive() ? "aimd" : "static");
+            endpoint.put("rps", limiter.getRps());
+            if (limiter.getLimit() < Integer.MAX_VALUE) {
+                endpoint.put("concurrency", limiter.getLimit());
+                endpoint.put("lowestConcurrency", limiter.getLowestLimit());
+                endpoint.put("highestConcurrency", limiter.getHighestLimit());
+            }
+            endpoint.put("requests", limiter.getRequests());
+            endpoint.put("overloaded", limiter.getOverloaded());
+            endpoint.put("decreases", limiter.getDecreases());
+            endpoint.put("meanQueueMs", limiter.getMeanQueueMillis());
+            endpoint.put("maxQueueMs", limiter.getMaxQueueMillis());
+            log.info(String.format("Limiter of %s (%s): concurrency %s (%s to %s), %.1f rps; %d requests, %d " +
+                            "overloaded, queued %.1f ms on average and %.1f ms at most", limiter.getEndPointKey(),
+                    endpoint.path("mode").asText(), concurrency(limiter.getLimit()),
+                    concurrency(limiter.getLowestLimit()), concurrency(limiter.getHighestLimit()), limiter.getRps(),
+                    limiter.getRequests(), limiter.getOverloaded(), limiter.getMeanQueueMillis(),
+                    limiter.getMaxQueueMillis()));
+        }
+
+        File reportFile = new File(ConfigReaderUtil.getConfig("phase_report_dir", "target"), "limits.json");
+        Reports.writeReport(reportFile, report);
+    }
+
+    private static String concurrency(double limit) {
+        return limit < Integer.MAX_VALUE ? String.format("%.1f", limit) : "unlimited";
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.listener;
+
+import lombok.extern.log4j.Log4j2;
+import org.example.util.ConfigReaderUtil;
+import org.testng.IAlterSuiteListener;
+import org.testng.IAnnotationTransformer;
+import org.testng.annotations.IDataProviderAnnotation;
+import org.testng.xml.XmlSuite;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Switches the rest request data provider to parallel execution when {@code parallel=true}, running its rows on
+ * {@code parallel_thread_count} threads.
+ */
+@Log4j2
+public class ParallelExecutionListener implements IAnnotationTransformer, IAlterSuiteListener {
+
+    private static final String REST_REQUEST_DATA_PROVIDER = "restRequestDataProvider";
+
+    @Override
+    public void transform(IDataProviderAnnotation annotation, Method method) {
+        if (REST_REQUEST_DATA_PROVIDER.equals(annotation.getName()) && isParallel()) {
+            annotation.setParallel(true);
+        }
+    }
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        if (!isParallel()) {
+            return;
+        }
+        int threadCount = ConfigReaderUtil.getIntConfig("parallel_thread_count", XmlSuite.DEFAULT_DATA_PROVIDER_THREAD_COUNT);
+        log.info("Running rest request data provider rows on {} threads", threadCount);
+        for (XmlSuite suite : suites) {
+            suite.setDataProviderThreadCount(threadCount);
+        }
+    }
+
+    private static boolean isParallel() {
+        return Boolean.parseBoolean(ConfigReaderUtil.getConfig("parallel", "false"));
+    }
+}
@@ -0,0 +1,178 @@
+package org.example.listener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.log4j.Log4j2;
+import org.example.util.ConfigReaderUtil;
+import org.testng.ITestResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Aggregates the {@link PhaseTimings} of the tests of a suite into {@code phase-timings.json} and
+ * {@code phase-timings.csv} in {@code phase_report_dir}, and logs the time spent per phase along with the
+ * {@code phase_report_slowest} slowest tests.
+ */
+@Log4j2
+class PhaseTimingReport {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String REPORT_NAME = "phase-timings";
+
+    private final List<TestTimings> tests = new ArrayList<>();
+
+    synchronized void add(ITestResult result, String status) {
+        PhaseTimings timings = PhaseTimings.finish(result);
+        if (timings != null) {
+            tests.add(new TestTimings(testName(result), status, timings));
+        }
+    }
+
+    /**
+     * Writes and logs the report of the tests added so far, then starts over for the next suite.
+     */
+    synchronized void write(String suiteName) {
+        if (tests.isEmpty()) {
+            return;
+        }
+        Map<String, PhaseSummary> phases = summarisePhases();
+        logSummary(suiteName, phases);
+
+        File reportDir = new File(ConfigReaderUtil.getConfig("phase_report_dir", "target"));
+        try {
+            // Creates the report directory for the CSV file too
+            Reports.writeReport(new File(reportDir, REPORT_NAME + ".json"), toJson(suiteName, phases));
+            writeCsv(new File(reportDir, REPORT_NAME + ".csv"), phases.keySet());
+            log.info("Phase timings written to {}", reportDir.getAbsolutePath());
+        } catch (IOException e) {
+            log.error("Unable to write phase timings to {}", reportDir.getAbsolutePath());
+            throw new RuntimeException(e);
+        } finally {
+            tests.clear();
+        }
+    }
+
+    private Map<String, PhaseSummary> summarisePhases() {
+        Map<String, PhaseSummary> phases = new LinkedHashMap<>();
+        for (TestTimings test : tests) {
+            test.phaseNanos.forEach((phase, nanos) -> phases.computeIfAbsent(phase, key -> new PhaseSummary()).add(nanos));
+        }
+        return phases;
+    }
+
+    private void logSummary(String suiteName, Map<String, PhaseSummary> phases) {
+        long suiteNanos = tests.stream().mapToLong(test -> test.totalNanos).sum();
+        StringBuilder summary = new StringBuilder(String.format("Phase timings of suite %s (%d tests, %.2f ms)%n",
+                suiteName, tests.size(), millis(suiteNanos)));
+        summary.append(String.format("%-20s %8s %12s %10s %10s %8s%n", "phase", "count", "total ms", "mean ms",
+                "max ms", "share %"));
+        phases.forEach((phase, phaseSummary) -> summary.append(String.format("%-20s %8d %12.2f %10.2f %10.2f %8.1f%n",
+                phase, phaseSummary.count, millis(phaseSummary.totalNanos), millis(phaseSummary.totalNanos) / phaseSummary.count,
+                millis(phaseSummary.maxNanos), suiteNanos == 0 ? 0 : 100.0 * phaseSummary.totalNanos / suiteNanos)));
+
+        int slowest = ConfigReaderUtil.getIntConfig("phase_report_slowest", 10);
+        summary.append(String.format("Slowest %d tests:%n", Math.min(slowest, tests.size())));
+        tests.stream()
+                .sorted(Comparator.comparingLong((TestTimings test) -> test.totalNanos).reversed())
+                .limit(slowest)
+                .forEach(test -> {
+                    summary.append(String.format("%10.2f ms  %s [%s]", millis(test.totalNanos), test.name, test.status));
+                    test.phaseNanos.forEach((phase, nanos) -> summary.append(String.format("  %s=%.2f", phase, millis(nanos))));
+                    summary.append(System.lineSeparator());
+                });
+        log.info(summary.toString().trim());
+    }
+
+    private ObjectNode toJson(String suiteName, Map<String, PhaseSummary> phases) {
+        ObjectNode report = OBJECT_MAPPER.createObjectNode();
+        report.put("suite", suiteName);
+        ObjectNode phasesJson = report.putObject("phases");
+        phases.forEach((phase, phaseSummary) -> {
+            ObjectNode phaseJson = phasesJson.putObject(phase);
+            phaseJson.put("count", phaseSummary.count);
+            phaseJson.put("totalMs", millis(phaseSummary.totalNanos));
+            phaseJson.put("meanMs", millis(phaseSummary.totalNanos) / phaseSummary.count);
+            phaseJson.put("maxMs", millis(phaseSummary.maxNanos));
+        });
+        ArrayNode testsJson = report.putArray("tests");
+        for (TestTimings test : tests) {
+            ObjectNode testJson = testsJson.addObject();
+            testJson.put("test", test.name);
+            testJson.put("status", test.status);
+            testJson.put("totalMs", millis(test.totalNanos));
+            ObjectNode testPhasesJson = testJson.putObject("phases");
+            test.phaseNanos.forEach((phase, nanos) -> testPhasesJson.put(phase, millis(nanos)));
+        }
+        return report;
+    }
+
+    private void writeCsv(File file, Set<String> phases) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            Set<String> header = new LinkedHashSet<>(List.of("test", "status", "totalMs"));
+            phases.forEach(phase -> header.add(phase + "Ms"));
+            writer.println(String.join(",", header));
+            for (TestTimings test : tests) {
+                StringBuilder line = new StringBuilder()
+                        .append(csvValue(test.name)).append(',')
+                        .append(test.status).append(',')
+                        .append(String.format("%.3f", millis(test.totalNanos)));
+                for (String phase : phases) {
+                    Long nanos = test.phaseNanos.get(phase);
+                    line.append(',').append(nanos == null ? "" : String.format("%.3f", millis(nanos)));
+                }
+                writer.println(line);
+            }
+        }
+    }
+
+    private static String testName(ITestResult result) {
+        String name = result.getTestClass().getRealClass().getSimpleName() + "." + result.getMethod().getMethodName();
+        Object[] parameters = result.getParameters();
+        return parameters.length > 0 ? name + "(" + parameters[0] + ")" : name;
+    }
+
+    private static String csvValue(String value) {
+        return value.contains(",") || value.contains("\"") ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static final class TestTimings {
+        private final String name;
+        private final String status;
+        private final long totalNanos;
+        private final Map<String, Long> phaseNanos;
+
+        private TestTimings(String name, String status, PhaseTimings timings) {
+            this.name = name;
+            this.status = status;
+            this.totalNanos = timings.getTotalNanos();
+            this.phaseNanos = timings.getPhaseNanos();
+        }
+    }
+
+    private static final class PhaseSummary {
+        private int count;
+        private long totalNanos;
+        private long maxNanos;
+
+        private void add(long nanos) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+    }
+}
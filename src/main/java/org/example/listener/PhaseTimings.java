@@ -0,0 +1,86 @@
+package org.example.listener;
+
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times the phases of the running test with the monotonic {@link System#nanoTime()} clock and attaches them to its
+ * {@link ITestResult}, so that {@link CustomTestResultListener} can report where the time of a run goes.
+ * <p>
+ * A phase recorded more than once in a test, such as a connect on a retried request, adds up. Outside of a test
+ * started by {@link CustomTestResultListener}, or on a thread other than the test's own, timings are dropped.
+ */
+public final class PhaseTimings {
+
+    private static final String ATTRIBUTE = PhaseTimings.class.getName();
+    // Phases in which a test waits on other tests or on the limiter of its endpoint rather than doing its own work
+    private static final List<String> WAITING_PHASES = List.of("dependencyWait", "limiterQueue");
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    private long totalNanos;
+
+    private PhaseTimings() {}
+
+    /**
+     * Records the time elapsed since {@code startNanos} against the given phase of the running test.
+     *
+     * @param phase the name of the phase
+     * @param startNanos the {@link System#nanoTime()} at which the phase started
+     */
+    public static void record(String phase, long startNanos) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        ITestResult result = Reporter.getCurrentTestResult();
+        Object timings = result == null ? null : result.getAttribute(ATTRIBUTE);
+        if (timings == null) {
+            return;
+        }
+        Map<String, Long> phaseNanos = ((PhaseTimings) timings).phaseNanos;
+        synchronized (phaseNanos) {
+            phaseNanos.merge(phase, elapsedNanos, Long::sum);
+        }
+    }
+
+    static void start(ITestResult result) {
+        result.setAttribute(ATTRIBUTE, new PhaseTimings());
+    }
+
+    /**
+     * Stops the clock of the test and returns its timings, or null when the test was not started by the listener.
+     */
+    static PhaseTimings finish(ITestResult result) {
+        PhaseTimings timings = (PhaseTimings) result.getAttribute(ATTRIBUTE);
+        if (timings != null && timings.totalNanos == 0) {
+            timings.totalNanos = System.nanoTime() - timings.startNanos;
+        }
+        return timings;
+    }
+
+    /**
+     * Returns the time the test spent waiting on other tests or on the limiter of its endpoint, or 0 when the test was
+     * not started by the listener.
+     */
+    static long waitingNanos(ITestResult result) {
+        PhaseTimings timings = (PhaseTimings) result.getAttribute(ATTRIBUTE);
+        if (timings == null) {
+            return 0;
+        }
+        synchronized (timings.phaseNanos) {
+            return WAITING_PHASES.stream().mapToLong(phase -> timings.phaseNanos.getOrDefault(phase, 0L)).sum();
+        }
+    }
+
+    long getTotalNanos() {
+        return totalNanos;
+    }
+
+    Map<String, Long> getPhaseNanos() {
+        synchronized (phaseNanos) {
+            return new LinkedHashMap<>(phaseNanos);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes the JSON reports of the suites, e.g. the phase timings, the makespan or the shard results.
+ */
+@Log4j2
+public final class Reports {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private Reports() {
+    }
+
+    /**
+     * Writes the report as pretty printed JSON, creating its directory when missing.
+     *
+     * @throws RuntimeException when the report cannot be written
+     */
+    public static void writeReport(File reportFile, JsonNode report) {
+        try {
+            File parent = reportFile.getAbsoluteFile().getParentFile();
+            if (!parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Unable to create " + parent);
+            }
+            OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(reportFile, report);
+        } catch (IOException e) {
+            log.error("Unable to write report to {}", reportFile.getAbsolutePath());
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.listener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.log4j.Log4j2;
+import org.example.databean.TestData;
+import org.example.shard.Shard;
+import org.example.util.ConfigReaderUtil;
+import org.testng.ITestResult;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the result of every test of a suite to the result file of its {@link Shard} in {@code shard_result_dir},
+ * from which {@link org.example.shard.ShardReportMerger} builds the report of the whole suite. An unsharded suite is
+ * shard 0 of 1.
+ */
+@Log4j2
+class ShardResultReport {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final List<ObjectNode> tests = new ArrayList<>();
+    private long startMillis = Long.MAX_VALUE;
+    private long endMillis = Long.MIN_VALUE;
+
+    synchronized void add(ITestResult result, String status) {
+        ObjectNode test = OBJECT_MAPPER.createObjectNode();
+        test.put("test", result.getTestClass().getRealClass().getSimpleName() + "." +
+                result.getMethod().getMethodName());
+        Object[] parameters = result.getParameters();
+        if (parameters.length > 0) {
+            test.put("id", String.valueOf(parameters[0]));
+        }
+        test.put("status", status);
+        if (parameters.length > 1 && parameters[1] instanceof TestData && ((TestData) parameters[1]).isCached()) {
+            test.put("cached", true);
+        }
+        test.put("durationMs", result.getEndMillis() - result.getStartMillis());
+        if (result.getThrowable() != null) {
+            test.put("failure", String.valueOf(result.getThrowable().getMessage()));
+        }
+        tests.add(test);
+        startMillis = Math.min(startMillis, result.getStartMillis());
+        endMillis = Math.max(endMillis, result.getEndMillis());
+    }
+
+    /**
+     * Writes the results of the tests added so far, then starts over for the next suite. A shard without tests still
+     * writes its results, so that the merge knows it has finished.
+     */
+    synchronized void write(String suiteName) {
+        Shard shard = Shard.fromConfig();
+        ObjectNode report = OBJECT_MAPPER.createObjectNode();
+        report.put("suite", suiteName);
+        report.put("shardIndex", shard.getIndex());
+        report.put("shardCount", shard.getCount());
+        report.put("elapsedMs", tests.isEmpty() ? 0 : endMillis - startMillis);
+        ArrayNode testsJson = report.putArray("tests");
+        tests.forEach(testsJson::add);
+
+        File reportFile = new File(ConfigReaderUtil.getConfig("shard_result_dir", "target/shard-results"),
+                shard.getResultFileName());
+        try {
+            Reports.writeReport(reportFile, report);
+            log.info("Shard results written to {}", reportFile.getAbsolutePath());
+        } finally {
+            tests.clear();
+            startMillis = Long.MAX_VALUE;
+            endMillis = Long.MIN_VALUE;
+        }
+    }
+}
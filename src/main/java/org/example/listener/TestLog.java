@@ -0,0 +1,143 @@
+package org.example.listener;
+
+import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.example.util.ConfigReaderUtil;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Collects the log record of the running test, written as a single structured event when the test ends. This keeps
+ * the record of a test together when tests run in parallel and defers all formatting to the end of the test.
+ * <p>
+ * A record holds named fields, e.g. the url or the expected response body, and free text lines. Nothing is formatted
+ * unless the record is written: only a {@code log_pass_sample_rate} share of the passing tests is logged, with every
+ * value truncated to {@code log_max_field_length} characters, while failing tests are always logged in full.
+ * <p>
+ * Outside of a test started by {@link CustomTestResultListener}, messages are logged straight away.
+ */
+@Log4j2
+public final class TestLog {
+
+    private static final String ATTRIBUTE = TestLog.class.getName();
+    private static final double PASS_SAMPLE_RATE =
+            Double.parseDouble(ConfigReaderUtil.getConfig("log_pass_sample_rate", "1"));
+    private static final int MAX_FIELD_LENGTH = ConfigReaderUtil.getIntConfig("log_max_field_length", 2000);
+
+    private final Map<String, Object> fields = new LinkedHashMap<>();
+    private final List<Line> lines = new ArrayList<>();
+
+    private TestLog() {}
+
+    public static void info(String message, Object... params) {
+        append(Level.INFO, message, params);
+    }
+
+    public static void error(String message, Object... params) {
+        append(Level.ERROR, message, params);
+    }
+
+    /**
+     * Adds a named field to the record of the running test. The value is only turned into a string if the record is
+     * written.
+     */
+    public static void field(String name, Object value) {
+        TestLog testLog = current();
+        if (testLog == null) {
+            log.info("{}: {}", name, value);
+            return;
+        }
+        synchronized (testLog) {
+            testLog.fields.put(name, value);
+        }
+    }
+
+    static void start(ITestResult result) {
+        result.setAttribute(ATTRIBUTE, new TestLog());
+    }
+
+    /**
+     * Writes the record of the test as one event, unless the test passed and is not sampled.
+     */
+    static void flush(ITestResult result, Level level, String status) {
+        TestLog testLog = (TestLog) result.removeAttribute(ATTRIBUTE);
+        boolean passed = result.getStatus() == ITestResult.SUCCESS;
+        if (!log.isEnabled(level) || passed && !isSampled()) {
+            return;
+        }
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("test", result.getMethod().getQualifiedName());
+        record.put("status", status);
+        if (testLog != null) {
+            synchronized (testLog) {
+                record.putAll(testLog.fields);
+                if (!testLog.lines.isEmpty()) {
+                    record.put("log", testLog);
+                }
+            }
+        }
+        if (result.getThrowable() != null) {
+            record.put("failure", String.valueOf(result.getThrowable().getMessage()));
+        }
+        log.log(level, new TestRecordMessage(record, passed ? MAX_FIELD_LENGTH : 0));
+    }
+
+    private static void append(Level level, String message, Object... params) {
+        TestLog testLog = current();
+        if (testLog == null) {
+            log.log(level, message, params);
+            return;
+        }
+        synchronized (testLog) {
+            testLog.lines.add(new Line(level, message, params));
+        }
+    }
+
+    private static TestLog current() {
+        ITestResult result = Reporter.getCurrentTestResult();
+        return result == null ? null : (TestLog) result.getAttribute(ATTRIBUTE);
+    }
+
+    /**
+     * Formats the free text lines of the record, once the record is written.
+     */
+    @Override
+    public String toString() {
+        StringBuilder formatted = new StringBuilder();
+        synchronized (this) {
+            for (Line line : lines) {
+                if (formatted.length() > 0) {
+                    formatted.append(System.lineSeparator());
+                }
+                formatted.append(line.level).append(' ').append(ParameterizedMessage.format(line.message, line.params));
+            }
+        }
+        return formatted.toString();
+    }
+
+    private static boolean isSampled() {
+        return PASS_SAMPLE_RATE >= 1 || ThreadLocalRandom.current().nextDouble() < PASS_SAMPLE_RATE;
+    }
+
+    /**
+     * A free text line of the record, kept unformatted until the record is written.
+     */
+    private static final class Line {
+        private final Level level;
+        private final String message;
+        private final Object[] params;
+
+        private Line(Level level, String message, Object[] params) {
+            this.level = level;
+            this.message = message;
+            this.params = params;
+        }
+    }
+}
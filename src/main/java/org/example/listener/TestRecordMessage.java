@@ -0,0 +1,74 @@
+package org.example.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.message.AsynchronouslyFormattable;
+import org.apache.logging.log4j.message.Message;
+
+import java.util.Map;
+
+/**
+ * The record of a test, rendered as a one line JSON object with its fields in the order they were added. The record
+ * is only rendered when an appender asks for it, which with asynchronous loggers happens on the logging thread rather
+ * than on the test thread; its values must therefore not change once the record is logged.
+ */
+@AsynchronouslyFormattable
+final class TestRecordMessage implements Message {
+
+    private static final long serialVersionUID = 1L;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final transient Map<String, Object> fields;
+    private final int maxLength;
+    private String formattedMessage;
+
+    /**
+     * @param fields the fields of the record, by name
+     * @param maxLength the length values are cut to, or 0 to render them in full
+     */
+    TestRecordMessage(Map<String, Object> fields, int maxLength) {
+        this.fields = fields;
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public String getFormattedMessage() {
+        if (formattedMessage == null) {
+            ObjectNode record = OBJECT_MAPPER.createObjectNode();
+            fields.forEach((name, value) -> {
+                if (value instanceof Number || value instanceof Boolean) {
+                    record.set(name, OBJECT_MAPPER.valueToTree(value));
+                } else if (value instanceof JsonNode && maxLength <= 0) {
+                    record.set(name, (JsonNode) value);
+                } else {
+                    record.put(name, truncate(String.valueOf(value)));
+                }
+            });
+            formattedMessage = record.toString();
+        }
+        return formattedMessage;
+    }
+
+    @Override
+    public String getFormat() {
+        return getFormattedMessage();
+    }
+
+    @Override
+    public Object[] getParameters() {
+        return null;
+    }
+
+    @Override
+    public Throwable getThrowable() {
+        return null;
+    }
+
+    private String truncate(String text) {
+        if (maxLength <= 0 || text.length() <= maxLength) {
+            return text;
+        }
+        return text.substring(0, maxLength) + "... (" + text.length() + " chars)";
+    }
+}
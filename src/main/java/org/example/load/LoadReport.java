@@ -0,0 +1,108 @@
+package org.example.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.log4j.Log4j2;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.example.listener.Reports;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the latencies and errors of a load run per row id, in HdrHistograms, and reports their percentiles,
+ * throughput and error rate per row and overall.
+ */
+@Log4j2
+public class LoadReport {
+
+    private static final String OVERALL = "overall";
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Map<String, RowStatistics> rows = new ConcurrentHashMap<>();
+    private final RowStatistics overall = new RowStatistics();
+
+    /**
+     * Records the outcome of one request.
+     *
+     * @param id the id of the row the request was built from
+     * @param latencyNanos the time from the intended start of the request to its completion
+     * @param failed whether the request failed or its response was invalid
+     */
+    public void record(String id, long latencyNanos, boolean failed) {
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(latencyNanos);
+        rows.computeIfAbsent(id, key -> new RowStatistics()).record(latencyMicros, failed);
+        overall.record(latencyMicros, failed);
+    }
+
+    /**
+     * Logs the report and writes it as JSON to the given file.
+     *
+     * @param elapsedNanos the duration of the run, used to compute the throughput
+     * @param reportFile the file to write the JSON report to
+     */
+    public void write(long elapsedNanos, File reportFile) {
+        double elapsedSeconds = elapsedNanos / 1e9;
+        ObjectNode report = OBJECT_MAPPER.createObjectNode();
+        log.info(String.format("%-20s %10s %10s %10s %10s %10s %10s %12s %10s", "id", "requests", "p50 ms",
+                "p90 ms", "p99 ms", "p99.9 ms", "max ms", "req/s", "errors %"));
+        rows.forEach((id, statistics) -> report.set(id, statistics.toJson(id, elapsedSeconds)));
+        report.set(OVERALL, overall.toJson(OVERALL, elapsedSeconds));
+        Reports.writeReport(reportFile, report);
+        log.info("Load report written to {}", reportFile.getAbsolutePath());
+    }
+
+    public long getRequestCount() {
+        return overall.histogram.getTotalCount();
+    }
+
+    public double getErrorRate() {
+        return overall.errorRate();
+    }
+
+    private static final class RowStatistics {
+        // Auto-resizing, so that no latency is ever dropped for being out of range
+        private final Histogram histogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+
+        private void record(long latencyMicros, boolean failed) {
+            histogram.recordValue(latencyMicros);
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        private double errorRate() {
+            long count = histogram.getTotalCount();
+            return count == 0 ? 0 : (double) errors.sum() / count;
+        }
+
+        private ObjectNode toJson(String id, double elapsedSeconds) {
+            ObjectNode json = OBJECT_MAPPER.createObjectNode();
+            json.put("requests", histogram.getTotalCount());
+            json.put("errors", errors.sum());
+            json.put("errorRate", errorRate());
+            json.put("throughput", histogram.getTotalCount() / elapsedSeconds);
+            json.put("p50Ms", percentileMillis(50));
+            json.put("p90Ms", percentileMillis(90));
+            json.put("p99Ms", percentileMillis(99));
+            json.put("p999Ms", percentileMillis(99.9));
+            json.put("maxMs", histogram.getMaxValue() / 1000.0);
+            json.put("meanMs", histogram.getMean() / 1000.0);
+            log.info(String.format("%-20s %10d %10.2f %10.2f %10.2f %10.2f %10.2f %12.1f %10.2f", id,
+                    histogram.getTotalCount(), percentileMillis(50), percentileMillis(90), percentileMillis(99),
+                    percentileMillis(99.9), histogram.getMaxValue() / 1000.0,
+                    histogram.getTotalCount() / elapsedSeconds, errorRate() * 100));
+            return json;
+        }
+
+        private double percentileMillis(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
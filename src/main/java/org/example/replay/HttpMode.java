@@ -0,0 +1,35 @@
+package org.example.replay;
+
+import lombok.extern.log4j.Log4j2;
+import org.example.exception.ValidationException;
+import org.example.util.ConfigReaderUtil;
+
+import java.util.Locale;
+
+/**
+ * How the suite reaches its endpoints, set by {@code http_mode}: {@code live} sends every request to the configured
+ * endpoints, {@code record} does too and saves every exchange to the {@link RecordingStore}, and {@code replay}
+ * points every endpoint at the {@link ReplayServer}, which answers from the recordings without any network.
+ */
+@Log4j2
+public enum HttpMode {
+    LIVE, RECORD, REPLAY;
+
+    private static volatile HttpMode configured;
+
+    public static HttpMode fromConfig() {
+        HttpMode mode = configured;
+        if (mode == null) {
+            String value = ConfigReaderUtil.getConfig("http_mode", "live").trim();
+            try {
+                mode = valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                String msg = String.format("http_mode %s in config is invalid", value);
+                log.error(msg);
+                throw new ValidationException(msg);
+            }
+            configured = mode;
+        }
+        return mode;
+    }
+}
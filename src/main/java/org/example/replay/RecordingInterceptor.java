@@ -0,0 +1,81 @@
+package org.example.replay;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Saves every exchange of the rest template to the {@link RecordingStore}, whatever its status. The response body is
+ * read in full to be recorded, then handed on from memory.
+ */
+public class RecordingInterceptor implements ClientHttpRequestInterceptor {
+
+    private final RecordingStore store;
+
+    public RecordingInterceptor(RecordingStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        ClientHttpResponse response = execution.execute(request, body);
+        byte[] responseBody;
+        try (InputStream responseStream = response.getBody()) {
+            responseBody = responseStream.readAllBytes();
+        }
+        store.save(new RecordingStore.Recording(request.getMethodValue(), request.getURI().toString(),
+                new HttpHeaders(request.getHeaders()), new String(body, StandardCharsets.UTF_8),
+                response.getRawStatusCode(), new HttpHeaders(response.getHeaders()),
+                new String(responseBody, StandardCharsets.UTF_8)));
+        return new BufferedResponse(response, responseBody);
+    }
+
+    private static final class BufferedResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final byte[] body;
+
+        private BufferedResponse(ClientHttpResponse response, byte[] body) {
+            this.response = response;
+            this.body = body;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+    }
+}
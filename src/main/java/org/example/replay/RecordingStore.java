@@ -0,0 +1,212 @@
+package org.example.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.example.util.ConfigReaderUtil;
+import org.springframework.http.HttpHeaders;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The exchanges recorded in {@code recording_dir}: one {@code <key>.json} file per exchange, keyed by a hash of its
+ * method, url and request body, and {@code index.jsonl}, which lists the key, method and url of every recording once,
+ * in the order they were last made. A request recorded again replaces its earlier recording and moves to the end of
+ * the index.
+ */
+@Log4j2
+public final class RecordingStore {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String INDEX_FILE = "index.jsonl";
+
+    private final Path directory;
+    // The index entry of every key, read from the index on the first save and in the order of the index
+    private Map<String, String> indexEntries;
+
+    private RecordingStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public static RecordingStore fromConfig() {
+        return new RecordingStore(Paths.get(ConfigReaderUtil.getConfig("recording_dir", "recordings")));
+    }
+
+    /**
+     * Saves the exchange through a temporary file, then rewrites the index with it the same way.
+     */
+    public synchronized void save(Recording recording) {
+        String key = key(recording.method, recording.url, recording.requestBody);
+        ObjectNode json = OBJECT_MAPPER.createObjectNode();
+        json.put("method", recording.method);
+        json.put("url", recording.url);
+        json.set("requestHeaders", OBJECT_MAPPER.valueToTree(recording.requestHeaders));
+        json.put("requestBody", recording.requestBody);
+        json.put("status", recording.status);
+        json.set("responseHeaders", OBJECT_MAPPER.valueToTree(recording.responseHeaders));
+        json.put("responseBody", recording.responseBody);
+        try {
+            Files.createDirectories(directory);
+            Path tempFile = Files.createTempFile(directory, key, ".tmp");
+            OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(tempFile.toFile(), json);
+            Files.move(tempFile, directory.resolve(key + ".json"), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            if (indexEntries == null) {
+                indexEntries = readIndexEntries();
+            }
+            indexEntries.remove(key);
+            indexEntries.put(key, OBJECT_MAPPER.createObjectNode().put("key", key).put("method", recording.method)
+                    .put("url", recording.url).toString());
+            writeIndex();
+        } catch (IOException e) {
+            log.error("Unable to record {} {} in {}", recording.method, recording.url, directory);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads every recording of the index into memory, by the key of its request and by its method and url, the
+     * latter holding the latest recording of requests that differ only by their body.
+     */
+    Map<String, Recording> readAll() {
+        Map<String, Recording> recordings = new HashMap<>();
+        Path index = directory.resolve(INDEX_FILE);
+        if (!Files.exists(index)) {
+            log.warn("No recordings in {}", directory);
+            return recordings;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode entry = OBJECT_MAPPER.readTree(line);
+                String key = entry.path("key").asText();
+                Recording recording = read(directory.resolve(key + ".json"));
+                recordings.put(key, recording);
+                recordings.put(looseKey(recording.method, recording.url), recording);
+            }
+        } catch (IOException e) {
+            log.error("Unable to read the recordings in {}", directory);
+            throw new UncheckedIOException(e);
+        }
+        return recordings;
+    }
+
+    /**
+     * Reads the entries of the index left by earlier runs, the last entry of a key, as index files written before the
+     * index was kept to one entry per key may list a key several times.
+     */
+    private Map<String, String> readIndexEntries() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        Path index = directory.resolve(INDEX_FILE);
+        if (!Files.exists(index)) {
+            return entries;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String key = OBJECT_MAPPER.readTree(line).path("key").asText();
+                entries.remove(key);
+                entries.put(key, line);
+            }
+        }
+        return entries;
+    }
+
+    private void writeIndex() throws IOException {
+        Path tempFile = Files.createTempFile(directory, INDEX_FILE, ".tmp");
+        try (BufferedWriter index = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            for (String entry : indexEntries.values()) {
+                index.write(entry);
+                index.newLine();
+            }
+        }
+        Files.move(tempFile, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static String key(String method, String url, String requestBody) {
+        return hash(method + ' ' + url + '\n' + (requestBody == null ? "" : requestBody));
+    }
+
+    static String looseKey(String method, String url) {
+        return method + ' ' + url;
+    }
+
+    private static Recording read(Path file) throws IOException {
+        JsonNode json = OBJECT_MAPPER.readTree(file.toFile());
+        return new Recording(json.path("method").asText(), json.path("url").asText(),
+                readHeaders(json.path("requestHeaders")), json.path("requestBody").asText(null),
+                json.path("status").asInt(), readHeaders(json.path("responseHeaders")),
+                json.path("responseBody").asText(""));
+    }
+
+    private static HttpHeaders readHeaders(JsonNode json) {
+        HttpHeaders headers = new HttpHeaders();
+        for (Iterator<Map.Entry<String, JsonNode>> it = json.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> header = it.next();
+            header.getValue().forEach(value -> headers.add(header.getKey(), value.asText()));
+        }
+        return headers;
+    }
+
+    private static String hash(String s) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A request and the response it received.
+     */
+    @Getter
+    public static final class Recording {
+        private final String method;
+        private final String url;
+        private final Map<String, List<String>> requestHeaders;
+        private final String requestBody;
+        private final int status;
+        private final Map<String, List<String>> responseHeaders;
+        private final String responseBody;
+
+        public Recording(String method, String url, Map<String, List<String>> requestHeaders, String requestBody,
+                         int status, Map<String, List<String>> responseHeaders, String responseBody) {
+            this.method = method;
+            this.url = url;
+            this.requestHeaders = requestHeaders;
+            this.requestBody = requestBody;
+            this.status = status;
+            this.responseHeaders = responseHeaders;
+            this.responseBody = responseBody;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.replay;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.log4j.Log4j2;
+import org.example.util.ConfigReaderUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local HTTP server answering the requests of a replayed suite from the {@link RecordingStore}, so that a suite runs
+ * without the network, against responses that do not change between runs. Every endpoint of the suite is rewritten to
+ * a path prefix of the server, which maps it back to the endpoint to look up the recording of the original url.
+ * <p>
+ * A request is answered with the recording of the same method, url and body, or else the latest recording of the same
+ * method and url, after {@code replay_latency_ms}; a request never recorded gets a 404. The server listens on the
+ * loopback address, on {@code replay_port} or any free port, from the first endpoint rewritten until {@link #stop()}.
+ */
+@Log4j2
+public final class ReplayServer {
+
+    private static final Set<String> UNREPLAYED_HEADERS = Set.of("content-length", "transfer-encoding", "connection",
+            "keep-alive");
+
+    private static ReplayServer instance;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, RecordingStore.Recording> recordings;
+    private final long latencyMillis;
+    private final Map<String, String> prefixesByEndpoint = new ConcurrentHashMap<>();
+    private final Map<String, String> endpointsByPrefix = new ConcurrentHashMap<>();
+
+    private ReplayServer() {
+        recordings = RecordingStore.fromConfig().readAll();
+        latencyMillis = ConfigReaderUtil.getIntConfig("replay_latency_ms", 0);
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "replay-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    ConfigReaderUtil.getIntConfig("replay_port", 0)), 0);
+        } catch (IOException e) {
+            log.error("Unable to start the replay server");
+            throw new UncheckedIOException(e);
+        }
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        log.info("Replaying {} recordings on port {}", recordings.values().stream().distinct().count(), server.getAddress().getPort());
+    }
+
+    /**
+     * Returns the url of the replay server standing in for the endpoint, starting the server on first use.
+     */
+    public static synchronized String rewrite(String endPoint) {
+        if (instance == null) {
+            instance = new ReplayServer();
+        }
+        ReplayServer replayServer = instance;
+        String prefix = replayServer.prefixesByEndpoint.computeIfAbsent(endPoint, e -> {
+            String p = "/e" + replayServer.endpointsByPrefix.size();
+            replayServer.endpointsByPrefix.put(p, e);
+            return p;
+        });
+        return "http://" + replayServer.server.getAddress().getHostString() + ':'
+                + replayServer.server.getAddress().getPort() + prefix;
+    }
+
+    /**
+     * Stops the server if it runs; the next endpoint rewritten starts it again.
+     */
+    public static synchronized void stop() {
+        if (instance == null) {
+            return;
+        }
+        instance.server.stop(0);
+        instance.executor.shutdownNow();
+        instance = null;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String url = originalUrl(exchange);
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            RecordingStore.Recording recording = url == null ? null
+                    : recordings.getOrDefault(RecordingStore.key(method, url, body),
+                    recordings.get(RecordingStore.looseKey(method, url)));
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            if (recording == null) {
+                log.warn("No recording of {} {}", method, url == null ? exchange.getRequestURI() : url);
+                String error = String.format("{\"error\":\"no recording of %s %s\"}", method,
+                        url == null ? exchange.getRequestURI() : url);
+                respond(exchange, 404, Map.of("Content-Type", List.of("application/json")), error);
+            } else {
+                respond(exchange, recording.getStatus(), recording.getResponseHeaders(), recording.getResponseBody());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Maps the url of the request back to the endpoint whose prefix it starts with, or returns null when it has none.
+     */
+    private String originalUrl(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getRawPath();
+        int end = path.indexOf('/', 1);
+        String prefix = end < 0 ? path : path.substring(0, end);
+        String endPoint = endpointsByPrefix.get(prefix);
+        if (endPoint == null) {
+            return null;
+        }
+        String query = exchange.getRequestURI().getRawQuery();
+        return endPoint + path.substring(prefix.length()) + (query == null ? "" : '?' + query);
+    }
+
+    private static void respond(HttpExchange exchange, int status, Map<String, List<String>> headers, String body)
+            throws IOException {
+        Headers responseHeaders = exchange.getResponseHeaders();
+        headers.forEach((name, values) -> {
+            if (!UNREPLAYED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                responseHeaders.put(name, values);
+            }
+        });
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(bytes);
+            }
+        }
+    }
+}
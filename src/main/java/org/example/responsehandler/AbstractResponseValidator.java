@@ -1,12 +1,45 @@
 package org.example.responsehandler;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.testng.Assert;
 
-public abstract class AbstractResponseValidator {
+/**
+ * Validates actual responses against an expected response body that is compiled once, with
+ * {@link #compileExpectedResponse(String)}, into the form the validator works on. The actual response body is
+ * validated as a parsed JSON tree, which callers can read straight from the response stream.
+ *
+ * @param <T> the compiled form of the expected response body
+ */
+public abstract class AbstractResponseValidator<T> {
 
-    public abstract void validateResponse(String actualResponseBody, String expectedResponseBody,
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public abstract T compileExpectedResponse(String expectedResponseBody);
+
+    public abstract void validateResponse(JsonNode actualResponseBody, T expectedResponse,
                                           int actualResponseCode, int expectedResponseCode);
 
+    /**
+     * Parses the actual response body and validates it. The response code is checked first, so that a non JSON error
+     * body reports the code mismatch rather than a parse failure.
+     */
+    public void validateResponse(String actualResponseBody, T expectedResponse,
+                                 int actualResponseCode, int expectedResponseCode) {
+        validateHttpCode(actualResponseCode, expectedResponseCode);
+        validateResponse(readTree(actualResponseBody), expectedResponse, actualResponseCode, expectedResponseCode);
+    }
+
+    /**
+     * Compiles the expected response body and validates the actual response against it, for one-off validations.
+     */
+    public void validateResponse(String actualResponseBody, String expectedResponseBody,
+                                 int actualResponseCode, int expectedResponseCode) {
+        validateResponse(actualResponseBody, compileExpectedResponse(expectedResponseBody), actualResponseCode,
+                expectedResponseCode);
+    }
+
     public void validateHttpCode(int actualResponseCode, int expectedResponseCode) {
 
         Assert.assertEquals(actualResponseCode, expectedResponseCode, "actual response code is not equal to " +
@@ -15,4 +48,12 @@ public abstract class AbstractResponseValidator {
 
     }
 
+    protected static JsonNode readTree(String body) {
+        try {
+            return OBJECT_MAPPER.readTree(body);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
 }
@@ -0,0 +1,53 @@
+package org.example.responsehandler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * The expected response of a row, compiled once by its validator when the row is loaded.
+ *
+ * @param <T> the compiled form of the expected response body
+ */
+@Getter
+public final class ExpectedResponse<T> {
+
+    private final int responseCode;
+    private final String responseBody;
+    private final T compiledResponseBody;
+    @Getter(AccessLevel.NONE)
+    private final AbstractResponseValidator<T> validator;
+
+    private ExpectedResponse(int responseCode, String responseBody, AbstractResponseValidator<T> validator) {
+        this.responseCode = responseCode;
+        this.responseBody = responseBody;
+        this.compiledResponseBody = validator.compileExpectedResponse(responseBody);
+        this.validator = validator;
+    }
+
+    static <T> ExpectedResponse<T> compile(AbstractResponseValidator<T> validator, String responseBody,
+                                           int responseCode) {
+        return new ExpectedResponse<>(responseCode, responseBody, validator);
+    }
+
+    /**
+     * Returns the name of the validator the response is validated by.
+     */
+    public String getValidatorType() {
+        return validator.getClass().getSimpleName();
+    }
+
+    /**
+     * Validates the actual response against the compiled expectations, failing the running test on a mismatch.
+     */
+    public void validate(String actualResponseBody, int actualResponseCode) {
+        validator.validateResponse(actualResponseBody, compiledResponseBody, actualResponseCode, responseCode);
+    }
+
+    /**
+     * Validates an actual response body that has already been parsed, e.g. straight from the response stream.
+     */
+    public void validate(JsonNode actualResponseBody, int actualResponseCode) {
+        validator.validateResponse(actualResponseBody, compiledResponseBody, actualResponseCode, responseCode);
+    }
+}
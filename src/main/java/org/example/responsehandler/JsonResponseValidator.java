@@ -1,40 +1,28 @@
 package org.example.responsehandler;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-import org.json.JSONString;
-import org.skyscreamer.jsonassert.JSONCompare;
-import org.skyscreamer.jsonassert.JSONCompareMode;
-import org.skyscreamer.jsonassert.JSONCompareResult;
-import org.skyscreamer.jsonassert.JSONParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.util.ConfigReaderUtil;
 import org.testng.Assert;
 
-public class JsonResponseValidator extends AbstractResponseValidator {
+/**
+ * Validates that the actual response body leniently contains the expected one: actual objects may have extra fields
+ * and arrays may be in any order. With {@code json_compare_fail_fast=true} only the first difference is reported.
+ */
+public class JsonResponseValidator extends AbstractResponseValidator<JsonNode> {
+
     @Override
-    public void validateResponse(String actualResponseBody, String expectedResponseBody,
+    public JsonNode compileExpectedResponse(String expectedResponseBody) {
+        return readTree(expectedResponseBody);
+    }
+
+    @Override
+    public void validateResponse(JsonNode actualResponseBody, JsonNode expectedResponse,
                                  int actualResponseCode, int expectedResponseCode) {
         validateHttpCode(actualResponseCode, expectedResponseCode);
-        JSONCompareResult result;
-        try {
-            Object expected = JSONParser.parseJSON(expectedResponseBody);
-            Object actual = JSONParser.parseJSON(actualResponseBody);
-            if ((expected instanceof JSONObject) && (actual instanceof JSONObject)) {
-                result = JSONCompare.compareJSON((JSONObject) expected, (JSONObject) actual, JSONCompareMode.LENIENT);
-            } else if ((expected instanceof JSONArray) && (actual instanceof JSONArray)) {
-                result = JSONCompare.compareJSON((JSONArray) expected, (JSONArray) actual, JSONCompareMode.LENIENT);
-            } else if (expected instanceof JSONString && actual instanceof JSONString) {
-                result = JSONCompare.compareJson((JSONString) expected, (JSONString) actual);
-            } else if (expected instanceof JSONObject) {
-                result =  new JSONCompareResult().fail("", expected, actual);
-            } else {
-                result =  new JSONCompareResult().fail("", expected, actual);
-            }
-        } catch (JSONException e) {
-            throw new RuntimeException(e);
-        }
-        if (result.failed()) {
-            Assert.fail("actual response body didn't contain expected response body " + result.getMessage());
+        boolean failFast = Boolean.parseBoolean(ConfigReaderUtil.getConfig("json_compare_fail_fast", "false"));
+        String message = new LenientJsonComparator(failFast).compare(expectedResponse, actualResponseBody);
+        if (!message.isEmpty()) {
+            Assert.fail("actual response body didn't contain expected response body " + message);
         }
     }
 }
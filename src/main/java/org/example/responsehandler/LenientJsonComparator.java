@@ -0,0 +1,453 @@
+package org.example.responsehandler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares JSON trees with the semantics of JSONAssert's LENIENT mode: the actual objects may have more fields than
+ * the expected ones, and array elements may be in any order, but arrays must have the same length. Failures are
+ * described the way JSONAssert describes them.
+ * <p>
+ * Arrays are matched in linear time where possible: simple values by their counts, objects by a field whose values
+ * identify them, like {@code id}, and otherwise by structural hash, falling back to a bipartite matching for the
+ * elements that are only equal in the lenient sense. Instances keep the failures of one comparison and are not
+ * thread safe.
+ */
+final class LenientJsonComparator {
+
+    private static final Object NULL_VALUE = new Object() {
+        @Override
+        public String toString() {
+            return "null";
+        }
+    };
+
+    private final boolean failFast;
+    private final List<String> failures = new ArrayList<>();
+
+    /**
+     * @param failFast whether to stop at the first failure instead of collecting all of them
+     */
+    LenientJsonComparator(boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    /**
+     * Compares the trees and returns the failures joined like JSONAssert's result message.
+     *
+     * @return the failure message, empty when the actual tree matches the expected one
+     */
+    String compare(JsonNode expected, JsonNode actual) {
+        compareValues("", expected, actual);
+        return String.join(" ; ", failures);
+    }
+
+    private boolean stop() {
+        return failFast && !failures.isEmpty();
+    }
+
+    private void compareValues(String prefix, JsonNode expected, JsonNode actual) {
+        if (expected.isNumber() && actual.isNumber()) {
+            if (expected.doubleValue() != actual.doubleValue()) {
+                fail(prefix, expected, actual);
+            }
+        } else if (expected.getNodeType() != actual.getNodeType()) {
+            fail(prefix, expected, actual);
+        } else if (expected.isObject()) {
+            compareObjects(prefix, expected, actual);
+        } else if (expected.isArray()) {
+            compareArrays(prefix, expected, actual);
+        } else if (!expected.equals(actual)) {
+            fail(prefix, expected, actual);
+        }
+    }
+
+    private void compareObjects(String prefix, JsonNode expected, JsonNode actual) {
+        Iterator<Map.Entry<String, JsonNode>> fields = expected.fields();
+        while (fields.hasNext() && !stop()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode actualValue = actual.get(field.getKey());
+            if (actualValue == null) {
+                failures.add(prefix + "\nExpected: " + field.getKey() + "\n     but none found\n");
+            } else {
+                compareValues(qualify(prefix, field.getKey()), field.getValue(), actualValue);
+            }
+        }
+    }
+
+    private void compareArrays(String prefix, JsonNode expected, JsonNode actual) {
+        if (expected.size() != actual.size()) {
+            failures.add(prefix + "[]: Expected " + expected.size() + " values but got " + actual.size());
+            return;
+        }
+        if (expected.size() == 0) {
+            return;
+        }
+        if (allSimpleValues(expected)) {
+            compareArraysOfSimpleValues(prefix, expected, actual);
+            return;
+        }
+        String uniqueKey = allObjects(expected) ? findUniqueKey(expected, actual) : null;
+        if (uniqueKey != null) {
+            compareArraysByUniqueKey(prefix, uniqueKey, expected, actual);
+        } else {
+            matchArrayElements(prefix, expected, actual);
+        }
+    }
+
+    private void compareArraysOfSimpleValues(String prefix, JsonNode expected, JsonNode actual) {
+        Map<Object, Integer> expectedCounts = countValues(expected);
+        Map<Object, Integer> actualCounts = countValues(actual);
+        for (Map.Entry<Object, Integer> expectedCount : expectedCounts.entrySet()) {
+            if (stop()) {
+                return;
+            }
+            Integer actualCount = actualCounts.get(expectedCount.getKey());
+            if (actualCount == null) {
+                failures.add(prefix + "[]\nExpected: " + expectedCount.getKey() + "\n     but none found\n");
+            } else if (!actualCount.equals(expectedCount.getValue())) {
+                failures.add(prefix + "[]: Expected " + expectedCount.getValue() + " occurrence(s) of "
+                        + expectedCount.getKey() + " but got " + actualCount + " occurrence(s)");
+            }
+        }
+        for (Object value : actualCounts.keySet()) {
+            if (stop()) {
+                return;
+            }
+            if (!expectedCounts.containsKey(value)) {
+                failures.add(prefix + "[]\nUnexpected: " + value + "\n");
+            }
+        }
+    }
+
+    private void compareArraysByUniqueKey(String prefix, String uniqueKey, JsonNode expected, JsonNode actual) {
+        Map<Object, JsonNode> expectedById = indexByKey(expected, uniqueKey);
+        Map<Object, JsonNode> actualById = indexByKey(actual, uniqueKey);
+        for (Map.Entry<Object, JsonNode> expectedElement : expectedById.entrySet()) {
+            if (stop()) {
+                return;
+            }
+            String elementPrefix = prefix + "[" + uniqueKey + "=" + expectedElement.getKey() + "]";
+            JsonNode actualElement = actualById.get(expectedElement.getKey());
+            if (actualElement == null) {
+                failures.add(elementPrefix + "\nExpected: a JSON object\n     but none found\n");
+            } else {
+                compareValues(elementPrefix, expectedElement.getValue(), actualElement);
+            }
+        }
+        for (Object id : actualById.keySet()) {
+            if (stop()) {
+                return;
+            }
+            if (!expectedById.containsKey(id)) {
+                failures.add(prefix + "[" + uniqueKey + "=" + id + "]\nUnexpected: a JSON object\n");
+            }
+        }
+    }
+
+    /**
+     * Pairs every expected element with a distinct actual element it matches. Elements equal up to number
+     * representation and field order are paired first through their hash; the rest are paired with augmenting paths,
+     * which finds a pairing whenever one exists.
+     */
+    private void matchArrayElements(String prefix, JsonNode expected, JsonNode actual) {
+        int size = expected.size();
+        int[] actualMatchedTo = new int[size];
+        int[] expectedMatchedTo = new int[size];
+        Arrays.fill(actualMatchedTo, -1);
+        Arrays.fill(expectedMatchedTo, -1);
+
+        Map<Integer, List<Integer>> actualByHash = new HashMap<>();
+        for (int j = 0; j < size; j++) {
+            actualByHash.computeIfAbsent(structuralHash(actual.get(j)), hash -> new ArrayList<>()).add(j);
+        }
+        for (int i = 0; i < size; i++) {
+            List<Integer> candidates = actualByHash.getOrDefault(structuralHash(expected.get(i)), List.of());
+            for (Iterator<Integer> iterator = candidates.iterator(); iterator.hasNext(); ) {
+                int j = iterator.next();
+                if (structurallyEqual(expected.get(i), actual.get(j))) {
+                    expectedMatchedTo[i] = j;
+                    actualMatchedTo[j] = i;
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+
+        Map<Long, Boolean> leniencyCache = new HashMap<>();
+        pairByScalarFields(expected, actual, expectedMatchedTo, actualMatchedTo, leniencyCache);
+        for (int i = 0; i < size; i++) {
+            if (expectedMatchedTo[i] == -1
+                    && !augment(i, expected, actual, expectedMatchedTo, actualMatchedTo, new HashSet<>(), leniencyCache)) {
+                failures.add(prefix + "[" + i + "] Could not find match for element " + expected.get(i));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Pairs the remaining objects whose scalar fields, restricted to the fields every expected object has, are equal
+     * and that match leniently. Actual objects usually differ from the expected ones by extra fields only, which this
+     * pairs in linear time.
+     */
+    private void pairByScalarFields(JsonNode expected, JsonNode actual, int[] expectedMatchedTo, int[] actualMatchedTo,
+                                    Map<Long, Boolean> leniencyCache) {
+        Set<String> scalarFields = commonScalarFields(expected);
+        if (scalarFields.isEmpty()) {
+            return;
+        }
+        Map<Map<String, Object>, List<Integer>> actualByFields = new HashMap<>();
+        for (int j = 0; j < actual.size(); j++) {
+            if (actualMatchedTo[j] == -1 && actual.get(j).isObject()) {
+                actualByFields.computeIfAbsent(project(actual.get(j), scalarFields), fields -> new ArrayList<>()).add(j);
+            }
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (expectedMatchedTo[i] != -1) {
+                continue;
+            }
+            List<Integer> candidates = actualByFields.getOrDefault(project(expected.get(i), scalarFields), List.of());
+            for (Iterator<Integer> iterator = candidates.iterator(); iterator.hasNext(); ) {
+                int j = iterator.next();
+                if (matches(i, j, expected, actual, leniencyCache)) {
+                    expectedMatchedTo[i] = j;
+                    actualMatchedTo[j] = i;
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    private static Set<String> commonScalarFields(JsonNode array) {
+        Set<String> scalarFields = null;
+        for (JsonNode element : array) {
+            if (!element.isObject()) {
+                return Set.of();
+            }
+            Set<String> elementFields = new HashSet<>();
+            element.fields().forEachRemaining(field -> {
+                if (!field.getValue().isContainerNode()) {
+                    elementFields.add(field.getKey());
+                }
+            });
+            if (scalarFields == null) {
+                scalarFields = elementFields;
+            } else {
+                scalarFields.retainAll(elementFields);
+            }
+        }
+        return scalarFields == null ? Set.of() : scalarFields;
+    }
+
+    private static Map<String, Object> project(JsonNode object, Set<String> fields) {
+        Map<String, Object> projection = new HashMap<>();
+        for (String field : fields) {
+            JsonNode value = object.get(field);
+            projection.put(field, value == null || value.isContainerNode() ? null : simpleValue(value));
+        }
+        return projection;
+    }
+
+    private boolean augment(int i, JsonNode expected, JsonNode actual, int[] expectedMatchedTo, int[] actualMatchedTo,
+                            Set<Integer> visited, Map<Long, Boolean> leniencyCache) {
+        for (int j = 0; j < actual.size(); j++) {
+            if (visited.contains(j) || !matches(i, j, expected, actual, leniencyCache)) {
+                continue;
+            }
+            visited.add(j);
+            if (actualMatchedTo[j] == -1 || augment(actualMatchedTo[j], expected, actual, expectedMatchedTo,
+                    actualMatchedTo, visited, leniencyCache)) {
+                expectedMatchedTo[i] = j;
+                actualMatchedTo[j] = i;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(int i, int j, JsonNode expected, JsonNode actual, Map<Long, Boolean> leniencyCache) {
+        return leniencyCache.computeIfAbsent((long) i * actual.size() + j,
+                key -> new LenientJsonComparator(true).compare(expected.get(i), actual.get(j)).isEmpty());
+    }
+
+    private void fail(String prefix, JsonNode expected, JsonNode actual) {
+        failures.add(prefix + "\nExpected: " + describe(expected) + "\n     got: " + describe(actual) + "\n");
+    }
+
+    private static String describe(JsonNode value) {
+        if (value.isArray()) {
+            return "a JSON array";
+        }
+        if (value.isObject()) {
+            return "a JSON object";
+        }
+        return value.asText();
+    }
+
+    private static String qualify(String prefix, String key) {
+        return prefix.isEmpty() ? key : prefix + "." + key;
+    }
+
+    private static boolean allSimpleValues(JsonNode array) {
+        for (JsonNode element : array) {
+            if (element.isContainerNode()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean allObjects(JsonNode array) {
+        for (JsonNode element : array) {
+            if (!element.isObject()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String findUniqueKey(JsonNode expected, JsonNode actual) {
+        Iterator<String> candidates = expected.get(0).fieldNames();
+        while (candidates.hasNext()) {
+            String candidate = candidates.next();
+            if (isUsableAsUniqueKey(candidate, expected) && isUsableAsUniqueKey(candidate, actual)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether every element of the array is an object with a distinct simple value for the given field.
+     */
+    private static boolean isUsableAsUniqueKey(String candidate, JsonNode array) {
+        Set<Object> seenValues = new HashSet<>();
+        for (JsonNode element : array) {
+            JsonNode value = element.isObject() ? element.get(candidate) : null;
+            if (value == null || value.isContainerNode() || !seenValues.add(simpleValue(value))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<Object, JsonNode> indexByKey(JsonNode array, String key) {
+        Map<Object, JsonNode> index = new LinkedHashMap<>();
+        for (JsonNode element : array) {
+            index.put(simpleValue(element.get(key)), element);
+        }
+        return index;
+    }
+
+    private static Map<Object, Integer> countValues(JsonNode array) {
+        Map<Object, Integer> counts = new LinkedHashMap<>();
+        for (JsonNode element : array) {
+            counts.merge(simpleValue(element), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Returns a key for a simple value under which numbers of any representation compare by value.
+     */
+    private static Object simpleValue(JsonNode value) {
+        if (value.isNumber()) {
+            return new NumberKey(value.doubleValue());
+        }
+        if (value.isBoolean()) {
+            return value.booleanValue();
+        }
+        return value.isNull() ? NULL_VALUE : value.asText();
+    }
+
+    /**
+     * Hashes the tree consistently with {@link #structurallyEqual}: field order is ignored and numbers hash by value.
+     */
+    private static int structuralHash(JsonNode node) {
+        if (node.isNumber()) {
+            return Double.hashCode(node.doubleValue() == 0 ? 0 : node.doubleValue());
+        }
+        if (node.isObject()) {
+            int hash = 1;
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                hash += field.getKey().hashCode() ^ structuralHash(field.getValue());
+            }
+            return hash;
+        }
+        if (node.isArray()) {
+            int hash = 1;
+            for (JsonNode element : node) {
+                hash = 31 * hash + structuralHash(element);
+            }
+            return hash;
+        }
+        return node.hashCode();
+    }
+
+    private static boolean structurallyEqual(JsonNode expected, JsonNode actual) {
+        if (expected.isNumber() && actual.isNumber()) {
+            return expected.doubleValue() == actual.doubleValue();
+        }
+        if (expected.getNodeType() != actual.getNodeType() || expected.size() != actual.size()) {
+            return false;
+        }
+        if (expected.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = expected.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode actualValue = actual.get(field.getKey());
+                if (actualValue == null || !structurallyEqual(field.getValue(), actualValue)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (expected.isArray()) {
+            for (int i = 0; i < expected.size(); i++) {
+                if (!structurallyEqual(expected.get(i), actual.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return expected.equals(actual);
+    }
+
+    /**
+     * A number compared by its double value, printed the way JSONAssert prints it.
+     */
+    private static final class NumberKey {
+        private final double value;
+
+        private NumberKey(double value) {
+            this.value = value == 0 ? 0 : value;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof NumberKey && ((NumberKey) other).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return value == Math.rint(value) && Math.abs(value) < 1e15 ? String.valueOf((long) value) : String.valueOf(value);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package org.example.responsehandler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.jsonSchema.JsonSchemaGenerator;
+import com.sun.codemodel.JCodeModel;
+import org.apache.commons.io.FileUtils;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.jsonschema2pojo.*;
+import org.jsonschema2pojo.rules.RuleFactory;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Set;
+
+/**
+ * Generates the expected schema by turning the expected response body into POJOs with jsonschema2pojo, compiling
+ * them with javac and reverse-generating a schema from the loaded class. Superseded by {@link SchemaInferer} and
+ * kept behind the {@code schema_generator=pojo} setting.
+ */
+class PojoSchemaGenerator {
+
+    private static final String PACKAGE_NAME = "com.schema.pojo";
+
+    /**
+     * Generates the expected schema inside a private working directory, so that concurrent invocations never share
+     * files, and closes the class loader of the generated POJOs before returning.
+     *
+     * @param expectedResponseBody the expected response body
+     * @return the expected schema as a string
+     */
+    String generateSchema(String expectedResponseBody) {
+        File workDirectory = createWorkDirectory();
+        try {
+            generatePOJOForJSON(workDirectory, expectedResponseBody);
+            compilePOJOs(workDirectory);
+            String expectedResponseSchema = getJSONSchema(workDirectory);
+            return addRequiredAttribute(expectedResponseSchema);
+        } finally {
+            deleteExistingPojoDirectory(workDirectory);
+        }
+    }
+
+    private File createWorkDirectory() {
+        try {
+            return Files.createTempDirectory("schema-pojo").toFile();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create POJO working directory", e);
+        }
+    }
+
+    /**
+     * This method adds the validation constraints to the raw JSON string generated by the getJSONSchema method.
+     *
+     * @param inputSchema the raw JSON schema as a string
+     * @return the modified JSON schema as a string
+     */
+    @SuppressWarnings("unchecked")
+    private String addRequiredAttribute(String inputSchema) {
+        try {
+            JSONObject rootObject = (JSONObject) new JSONParser().parse(inputSchema);
+            addObjectsToMap(rootObject);
+            rootObject.put("$schema", "http://json-schema.org/draft-04/schema#");
+            return rootObject.toJSONString();
+        } catch (ParseException e) {
+            throw new RuntimeException("Failed to parse input schema", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addObjectsToMap(JSONObject rootObj) throws ParseException {
+        if (!rootObj.containsKey("properties")) {
+            return; // Early return if no properties exist
+        }
+
+        JSONObject properties = (JSONObject) rootObj.get("properties");
+        Set<String> childProperties = properties.keySet();
+        JSONArray requiredProperties = new JSONArray();
+
+        for (String property : childProperties) {
+            requiredProperties.add(property);
+            JSONObject childNode = (JSONObject) properties.get(property);
+
+            // Recursively process the child node
+            addObjectsToMap(childNode);
+
+            // Update the properties with the modified child node
+            properties.put(property, childNode);
+        }
+
+        rootObj.put("properties", properties);
+        rootObj.put("required", requiredProperties);
+    }
+
+    /**
+     * Generates the raw JSON schema, which will be enriched with validation constraints.
+     *
+     * @return Raw string of JSON Schema. This string does not have any strict JSON field validation checks.
+     */
+    private String getJSONSchema(File workDirectory) {
+        ObjectMapper mapper = new ObjectMapper();
+        com.fasterxml.jackson.module.jsonSchema.JsonSchema finalSchema = getFinalschema(mapper, workDirectory);
+
+        try {
+            return mapper.writeValueAsString(finalSchema);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to convert final schema to JSON string", e);
+        }
+    }
+
+    /**
+     * Loads the compiled POJOs through a class loader that is closed once the schema has been generated.
+     */
+    private com.fasterxml.jackson.module.jsonSchema.JsonSchema getFinalschema(ObjectMapper mapper, File workDirectory) {
+        JsonSchemaGenerator schemaGen = new JsonSchemaGenerator(mapper);
+
+        try (URLClassLoader cl = new URLClassLoader(getClassUrls(workDirectory))) {
+            Class<?> clazz = cl.loadClass(PACKAGE_NAME + ".ExpectedResponsePojo");
+            return schemaGen.generateSchema(clazz);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("ExpectedResponsePojo class not found", e);
+        } catch (JsonMappingException | SecurityException e) {
+            throw new RuntimeException("Failed to generate JSON schema", e);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to close POJO class loader", e);
+        }
+    }
+
+    private URL[] getClassUrls(File workDirectory) {
+        File file = new File(workDirectory, "SchemaPojo");
+
+        try {
+            return new URL[]{file.toURI().toURL()};
+        } catch (MalformedURLException e) {
+            throw new RuntimeException("Failed to convert file to URL", e);
+        }
+    }
+
+    /**
+     * Compiles the POJOs created so that they can be loaded dynamically at runtime for reverse schema generation.
+     */
+    private void compilePOJOs(File workDirectory) {
+        File pojoFolder = new File(workDirectory, "SchemaPojo/" + PACKAGE_NAME.replace('.', '/'));
+
+        File[] sourceFiles = pojoFolder.listFiles();
+        if (sourceFiles == null || sourceFiles.length == 0) {
+            throw new RuntimeException("No source files found in " + pojoFolder.getAbsolutePath());
+        }
+
+        String[] sourceFilePaths = new String[sourceFiles.length];
+        for (int i = 0; i < sourceFiles.length; i++) {
+            sourceFilePaths[i] = sourceFiles[i].getPath();
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new RuntimeException("Java compiler not available. Ensure that the JDK is used to run this application.");
+        }
+
+        int compilationResult = compiler.run(null, null, null, sourceFilePaths);
+        if (compilationResult != 0) {
+            throw new RuntimeException("Compilation failed with error code: " + compilationResult);
+        }
+    }
+
+    /**
+     * Generates the POJOs for the expected response body passed in the data provider.
+     * These POJOs will be further used for schema validation.
+     *
+     * @param workDirectory the private working directory of this invocation
+     * @param inputString the JSON string for which POJOs are to be generated
+     */
+    private void generatePOJOForJSON(File workDirectory, String inputString) {
+        File inputJson = new File(workDirectory, "expectedResponsePojo.json");
+
+        // Write the input JSON string to a file
+        writeJsonToFile(inputJson, inputString);
+
+        // Prepare the output directory for the generated POJOs
+        File outputPojoDirectory = new File(workDirectory, "SchemaPojo");
+
+        // Create the output directory
+        if (!outputPojoDirectory.mkdirs()) {
+            throw new RuntimeException("Failed to create POJO output directory: " + outputPojoDirectory.getAbsolutePath());
+        }
+
+        // Generate the POJOs from the JSON file
+        generatePOJOsFromJson(inputJson, outputPojoDirectory, PACKAGE_NAME);
+    }
+
+    /**
+     * Writes the given JSON string to a specified file.
+     *
+     * @param file the file to write to
+     * @param jsonString the JSON string to write
+     */
+    private void writeJsonToFile(File file, String jsonString) {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(jsonString);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write JSON to file: " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Deletes the POJO working directory if it exists.
+     *
+     * @param directory the directory to delete
+     */
+    private void deleteExistingPojoDirectory(File directory) {
+        if (directory.exists()) {
+            try {
+                FileUtils.deleteDirectory(directory);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to delete existing POJO directory: " + directory.getAbsolutePath(), e);
+            }
+        }
+    }
+
+    /**
+     * Generates POJOs from the specified JSON file.
+     *
+     * @param inputJson the JSON file
+     * @param outputDirectory the directory to output the generated POJOs
+     * @param packageName the package name for the generated POJOs
+     */
+    private void generatePOJOsFromJson(File inputJson, File outputDirectory, String packageName) {
+        try {
+            JSONtoPOJO(inputJson.toURI().toURL(), outputDirectory, packageName, inputJson.getName().replace(".json", ""));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate POJOs from JSON: " + inputJson.getAbsolutePath(), e);
+        }
+    }
+
+    private void JSONtoPOJO(URL inputJson, File outputPojoDirectory, String packageName, String className) {
+        JCodeModel codeModel = new JCodeModel();
+
+        // Configure the schema mapper
+        SchemaMapper mapper = getSchemaMapper();
+
+        // Generate the POJOs
+        mapper.generate(codeModel, className, packageName, inputJson);
+
+        // Build the generated code to the output directory
+        try {
+            codeModel.build(outputPojoDirectory);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to build POJOs in directory: " + outputPojoDirectory.getAbsolutePath(), e);
+        }
+    }
+
+    private static SchemaMapper getSchemaMapper() {
+        GenerationConfig config = new DefaultGenerationConfig() {
+            @Override
+            public boolean isGenerateBuilders() {
+                return false; // Disable builder generation
+            }
+
+            @Override
+            public SourceType getSourceType() {
+                return SourceType.JSON; // Specify the source type as JSON
+            }
+        };
+
+        // Create the schema mapper with the configured settings
+        return new SchemaMapper(
+                new RuleFactory(config, new Jackson2Annotator(config), new SchemaStore()),
+                new SchemaGenerator()
+        );
+    }
+}
@@ -2,9 +2,19 @@ package org.example.responsehandler;
 
 public class ResponseValidatorFactory {
 
-    public static AbstractResponseValidator getInstance(boolean isSchemaValidation) {
+    public static AbstractResponseValidator<?> getInstance(boolean isSchemaValidation) {
         return isSchemaValidation ? new SchemaValidator() : new JsonResponseValidator();
     }
 
+    /**
+     * Compiles the expected response of a row with the validator it is validated by.
+     */
+    public static ExpectedResponse<?> compileExpectedResponse(boolean isSchemaValidation, String expectedResponseBody,
+                                                              int expectedResponseCode) {
+        return isSchemaValidation
+                ? ExpectedResponse.compile(new SchemaValidator(), expectedResponseBody, expectedResponseCode)
+                : ExpectedResponse.compile(new JsonResponseValidator(), expectedResponseBody, expectedResponseCode);
+    }
+
 
 }
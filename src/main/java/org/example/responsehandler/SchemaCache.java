@@ -0,0 +1,213 @@
+package org.example.responsehandler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jackson.JsonLoader;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.example.util.ConfigReaderUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content addressed cache of compiled expected schemas, keyed by a SHA-256 hash of the schema generator and the
+ * expected response body.
+ * <p>
+ * Compiled validators are kept in a bounded LRU map. When {@code schema_cache_dir} is set, generated schemas are
+ * also written to that directory so that a later run only has to compile them. The cache is safe to share between
+ * parallel tests; concurrent misses on the same body generate its schema only once.
+ */
+public final class SchemaCache {
+
+    private static final JsonSchemaFactory SCHEMA_FACTORY = JsonSchemaFactory.byDefault();
+
+    private static final SchemaCache INSTANCE = new SchemaCache(
+            ConfigReaderUtil.getIntConfig("schema_cache_size", 256),
+            ConfigReaderUtil.getConfig("schema_cache_dir", ""));
+
+    private final Map<String, CachedSchema> schemas;
+    private final Path diskStore;
+    private final Map<String, CompletableFuture<CachedSchema>> pendingSchemas = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private SchemaCache(int maxSize, String diskStoreDirectory) {
+        this.schemas = new LinkedHashMap<String, CachedSchema>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSchema> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.diskStore = StringUtils.isBlank(diskStoreDirectory) ? null : Paths.get(diskStoreDirectory);
+    }
+
+    public static SchemaCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the compiled schema for the expected response body, generating it only when it is neither in memory
+     * nor in the on-disk store.
+     *
+     * @param generatorName the name of the schema generator, part of the cache key
+     * @param expectedResponseBody the expected response body
+     * @param generator builds the schema when it is not cached
+     * @return the cached schema
+     */
+    CachedSchema get(String generatorName, String expectedResponseBody, SchemaSource generator) throws IOException {
+        String key = hash(generatorName + '\n' + expectedResponseBody);
+        CachedSchema cachedSchema;
+        synchronized (schemas) {
+            cachedSchema = schemas.get(key);
+        }
+        if (cachedSchema != null) {
+            hits.incrementAndGet();
+            return cachedSchema;
+        }
+
+        // Concurrent misses on the same key wait for the first one instead of generating the schema again
+        CompletableFuture<CachedSchema> pending = new CompletableFuture<>();
+        CompletableFuture<CachedSchema> inFlight = pendingSchemas.putIfAbsent(key, pending);
+        if (inFlight != null) {
+            hits.incrementAndGet();
+            return await(inFlight);
+        }
+        try {
+            cachedSchema = load(key, expectedResponseBody, generator);
+            pending.complete(cachedSchema);
+            return cachedSchema;
+        } catch (IOException | RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingSchemas.remove(key);
+        }
+    }
+
+    private CachedSchema load(String key, String expectedResponseBody, SchemaSource generator) throws IOException {
+        JsonNode schemaNode = readFromDisk(key);
+        if (schemaNode != null) {
+            diskHits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            schemaNode = generator.generate(expectedResponseBody);
+            writeToDisk(key, schemaNode);
+        }
+        CachedSchema cachedSchema = new CachedSchema(schemaNode, compile(schemaNode));
+        synchronized (schemas) {
+            schemas.put(key, cachedSchema);
+        }
+        return cachedSchema;
+    }
+
+    private CachedSchema await(CompletableFuture<CachedSchema> inFlight) throws IOException {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (schemas) {
+            return schemas.size();
+        }
+    }
+
+    private JsonSchema compile(JsonNode schemaNode) {
+        try {
+            return SCHEMA_FACTORY.getJsonSchema(schemaNode);
+        } catch (ProcessingException e) {
+            throw new RuntimeException("Failed to compile expected schema", e);
+        }
+    }
+
+    private JsonNode readFromDisk(String key) throws IOException {
+        if (diskStore == null) {
+            return null;
+        }
+        Path schemaFile = diskStore.resolve(key + ".json");
+        return Files.exists(schemaFile) ? JsonLoader.fromFile(schemaFile.toFile()) : null;
+    }
+
+    /**
+     * Writes the schema to the on-disk store through a temporary file, so that concurrent runs never read a
+     * partially written schema.
+     */
+    private void writeToDisk(String key, JsonNode schemaNode) throws IOException {
+        if (diskStore == null) {
+            return;
+        }
+        Files.createDirectories(diskStore);
+        Path tempFile = Files.createTempFile(diskStore, key, ".tmp");
+        Files.write(tempFile, schemaNode.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(tempFile, diskStore.resolve(key + ".json"), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String hash(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Generates the schema of an expected response body on a cache miss.
+     */
+    @FunctionalInterface
+    interface SchemaSource {
+        JsonNode generate(String expectedResponseBody) throws IOException;
+    }
+
+    /**
+     * A generated schema together with its ready-to-use validator.
+     */
+    @Getter
+    static final class CachedSchema {
+        private final JsonNode schemaNode;
+        private final JsonSchema schema;
+
+        private CachedSchema(JsonNode schemaNode, JsonSchema schema) {
+            this.schemaNode = schemaNode;
+            this.schema = schema;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.responsehandler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Infers a draft-04 JSON schema straight from an expected response body, entirely in memory.
+ * <p>
+ * The inferred schema is equivalent to the one produced by the jsonschema2pojo, javac and
+ * {@code JsonSchemaGenerator} round trip in {@link PojoSchemaGenerator}: the same types, properties, array items and
+ * {@code required} constraints. Only the {@code id} URNs derived from the generated class names are left out, as
+ * they carry no validation semantics.
+ */
+final class SchemaInferer {
+
+    static final String DRAFT_04 = "http://json-schema.org/draft-04/schema#";
+
+    private static final JsonNodeFactory NODE_FACTORY = JsonNodeFactory.instance;
+
+    private SchemaInferer() {}
+
+    /**
+     * Infers the expected schema for the given response body.
+     *
+     * @param expectedResponseBody the parsed expected response body
+     * @return the draft-04 schema, with every property reachable through nested objects marked as required
+     */
+    static ObjectNode inferSchema(JsonNode expectedResponseBody) {
+        JsonNode root = expectedResponseBody;
+        // jsonschema2pojo names the root class after the item type of a root array, so the merged item is the root
+        if (root.isArray() && root.size() > 0 && root.get(0).isObject()) {
+            root = mergeArrayItems((ArrayNode) root);
+        }
+        if (!root.isObject()) {
+            throw new RuntimeException("Expected response body must be a JSON object or an array of objects " +
+                    "for schema validation");
+        }
+        ObjectNode schema = NODE_FACTORY.objectNode();
+        schema.put("$schema", DRAFT_04);
+        schema.setAll(objectSchema(root, true));
+        return schema;
+    }
+
+    private static ObjectNode schemaFor(JsonNode node, boolean required) {
+        if (node.isObject()) {
+            return objectSchema(node, required);
+        }
+        if (node.isArray()) {
+            return arraySchema((ArrayNode) node);
+        }
+        return simpleTypeSchema(node);
+    }
+
+    /**
+     * Builds the schema of an object. The {@code required} list is only added along the chain of nested properties
+     * starting at the root, matching the enrichment previously done on the reverse-generated schema.
+     */
+    private static ObjectNode objectSchema(JsonNode node, boolean required) {
+        ObjectNode schema = NODE_FACTORY.objectNode();
+        schema.put("type", "object");
+        if (node.size() == 0) {
+            return schema;
+        }
+        ObjectNode properties = schema.putObject("properties");
+        ArrayNode requiredProperties = NODE_FACTORY.arrayNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            properties.set(field.getKey(), schemaFor(field.getValue(), required));
+            requiredProperties.add(field.getKey());
+        }
+        if (required) {
+            schema.set("required", requiredProperties);
+        }
+        return schema;
+    }
+
+    private static ObjectNode arraySchema(ArrayNode node) {
+        ObjectNode schema = NODE_FACTORY.objectNode();
+        schema.put("type", "array");
+        if (node.size() == 0 || node.get(0).isNull()) {
+            return schema;
+        }
+        JsonNode exampleItem = node.get(0).isObject() ? mergeArrayItems(node) : node.get(0);
+        schema.set("items", schemaFor(exampleItem, false));
+        return schema;
+    }
+
+    private static ObjectNode simpleTypeSchema(JsonNode node) {
+        ObjectNode schema = NODE_FACTORY.objectNode();
+        if (node.isTextual()) {
+            schema.put("type", "string");
+        } else if (node.isIntegralNumber()) {
+            schema.put("type", "integer");
+        } else if (node.isNumber()) {
+            schema.put("type", "number");
+        } else if (node.isBoolean()) {
+            schema.put("type", "boolean");
+        } else {
+            // null examples were typed as java.lang.Object, which is described as an object
+            schema.put("type", "object");
+        }
+        return schema;
+    }
+
+    /**
+     * Merges all object items of an array into a single example, the same way jsonschema2pojo does: nested objects
+     * are merged, nested arrays are concatenated and any other value is replaced by the later one.
+     */
+    private static ObjectNode mergeArrayItems(ArrayNode array) {
+        ObjectNode merged = NODE_FACTORY.objectNode();
+        for (JsonNode item : array) {
+            if (item.isObject()) {
+                mergeObjectNodes(merged, item);
+            }
+        }
+        return merged;
+    }
+
+    private static void mergeObjectNodes(ObjectNode target, JsonNode update) {
+        Iterator<Map.Entry<String, JsonNode>> fields = update.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode targetValue = target.get(field.getKey());
+            JsonNode updateValue = field.getValue();
+            if (targetValue != null && targetValue.isObject() && updateValue.isObject()) {
+                mergeObjectNodes((ObjectNode) targetValue, updateValue);
+            } else if (targetValue != null && targetValue.isArray() && updateValue.isArray()) {
+                ((ArrayNode) targetValue).addAll(((ArrayNode) updateValue).deepCopy());
+            } else {
+                target.set(field.getKey(), updateValue.deepCopy());
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.schedule;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.example.chain.DependencyGraph;
+import org.example.databean.TestData;
+import org.example.util.ConfigReaderUtil;
+import org.testng.ITestContext;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Orders the rows of a suite by the durations the {@link DurationStore} recorded for them, longest first, so that the
+ * slowest rows never start last and stretch the makespan of a parallel run. With {@code duration_failing_first=true}
+ * the rows that failed last time come first of all, to fail fast. Rows are still provided after the rows they depend
+ * on, which the runner waits for, rows without a recorded duration are expected to take the mean duration, and cached
+ * passes no time at all.
+ * <p>
+ * The schedule also predicts the makespan of the suite on its {@code parallel_thread_count} threads, or on one when
+ * it does not run in parallel, in this order and in the order of the data provider, for the report to compare with
+ * the actual makespan.
+ */
+@Log4j2
+@Getter
+public final class DurationSchedule {
+
+    private static final String CONTEXT_ATTRIBUTE = DurationSchedule.class.getName();
+
+    private final int rows;
+    private final int knownRows;
+    private final int workers;
+    private final double predictedMillis;
+    private final double dataOrderPredictedMillis;
+
+    private DurationSchedule(int rows, int knownRows, int workers, double predictedMillis,
+                             double dataOrderPredictedMillis) {
+        this.rows = rows;
+        this.knownRows = knownRows;
+        this.workers = workers;
+        this.predictedMillis = predictedMillis;
+        this.dataOrderPredictedMillis = dataOrderPredictedMillis;
+    }
+
+    /**
+     * Returns the schedule of the rows provided to the test, or null when they were not ordered.
+     */
+    public static DurationSchedule get(ITestContext context) {
+        return (DurationSchedule) context.getAttribute(CONTEXT_ATTRIBUTE);
+    }
+
+    /**
+     * Orders the rows when {@code duration_ordering=true} and the store has durations; otherwise returns them as they
+     * are, without reading them up front. Streamed rows are never ordered, as ordering reads every row before the
+     * first one runs.
+     *
+     * @param rows the id and test data of every row, as given by the data provider
+     * @param streamed whether the data provider reads the rows lazily, to keep any number of them out of memory
+     * @param context the context of the test the rows are provided to, to keep the schedule in for the report, or null
+     */
+    public static Iterator<Object[]> order(Iterator<Object[]> rows, boolean streamed, ITestContext context) {
+        DurationStore store = DurationStore.getInstance();
+        if (!Boolean.parseBoolean(ConfigReaderUtil.getConfig("duration_ordering", "true")) || store.isEmpty()) {
+            return rows;
+        }
+        if (streamed) {
+            log.info("Running the rows in data order rather than longest first, as they are streamed and ordering " +
+                    "them would read them all into memory");
+            return rows;
+        }
+        List<Object[]> dataOrder = new ArrayList<>();
+        rows.forEachRemaining(dataOrder::add);
+        Map<Object[], Double> expectedMillis = new IdentityHashMap<>();
+        Map<Object[], Boolean> failedLast = new IdentityHashMap<>();
+        double knownMillis = 0;
+        int knownRows = 0;
+        for (Object[] row : dataOrder) {
+            TestData testData = (TestData) row[1];
+            if (testData.isCached()) {
+                // Cached passes are reported, not run
+                expectedMillis.put(row, 0.0);
+                continue;
+            }
+            DurationStore.Entry entry = store.get(testData.getId(), testData.getContentHash());
+            if (entry != null) {
+                expectedMillis.put(row, entry.getDurationMillis());
+                failedLast.put(row, "FAIL".equals(entry.getLastStatus()));
+                knownMillis += entry.getDurationMillis();
+                knownRows++;
+            }
+        }
+        double meanMillis = knownRows == 0 ? 0 : knownMillis / knownRows;
+        dataOrder.forEach(row -> expectedMillis.putIfAbsent(row, meanMillis));
+
+        Comparator<Object[]> longestFirst = Comparator.comparing(expectedMillis::get, Comparator.reverseOrder());
+        if (Boolean.parseBoolean(ConfigReaderUtil.getConfig("duration_failing_first", "false"))) {
+            longestFirst = Comparator.comparing((Object[] row) -> !failedLast.getOrDefault(row, false))
+                    .thenComparing(longestFirst);
+        }
+        List<Object[]> ordered = new ArrayList<>(dataOrder);
+        ordered.sort(longestFirst);
+        ordered = afterDependencies(ordered);
+
+        int workers = Boolean.parseBoolean(ConfigReaderUtil.getConfig("parallel", "false"))
+                ? ConfigReaderUtil.getIntConfig("parallel_thread_count", 10) : 1;
+        DurationSchedule schedule = new DurationSchedule(dataOrder.size(), knownRows, workers,
+                makespan(ordered, expectedMillis, workers), makespan(dataOrder, expectedMillis, workers));
+        log.info("Ordered {} rows longest first, {} with a recorded duration; predicted makespan {} ms on {} " +
+                        "threads, against {} ms in data order", schedule.rows, knownRows,
+                String.format("%.1f", schedule.predictedMillis), workers,
+                String.format("%.1f", schedule.dataOrderPredictedMillis));
+        if (context != null) {
+            context.setAttribute(CONTEXT_ATTRIBUTE, schedule);
+        }
+        return ordered.iterator();
+    }
+
+    /**
+     * Moves every row after the rows it depends on, keeping the order otherwise.
+     */
+    private static List<Object[]> afterDependencies(List<Object[]> rows) {
+        List<TestData> testData = new ArrayList<>(rows.size());
+        Map<TestData, Object[]> rowsByTestData = new IdentityHashMap<>();
+        for (Object[] row : rows) {
+            testData.add((TestData) row[1]);
+            rowsByTestData.put((TestData) row[1], row);
+        }
+        List<Object[]> sorted = new ArrayList<>(rows.size());
+        DependencyGraph.build(testData).getSortedRows().forEach(row -> sorted.add(rowsByTestData.get(row)));
+        return sorted;
+    }
+
+    /**
+     * Simulates the rows started in order, each on the first thread to become free.
+     */
+    private static double makespan(List<Object[]> rows, Map<Object[], Double> expectedMillis, int workers) {
+        PriorityQueue<Double> freeAt = new PriorityQueue<>();
+        for (int i = 0; i < workers; i++) {
+            freeAt.add(0.0);
+        }
+        double makespan = 0;
+        for (Object[] row : rows) {
+            double end = freeAt.poll() + expectedMillis.get(row);
+            freeAt.add(end);
+            makespan = Math.max(makespan, end);
+        }
+        return makespan;
+    }
+}
@@ -0,0 +1,161 @@
+package org.example.schedule;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.example.util.ConfigReaderUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local store of the durations of the rows across runs, in {@code duration_store_file}, keyed by the id of a row and
+ * the hash of its content so that a changed row starts over. The duration of a row is averaged over its runs, the
+ * latest run weighing half. Rows not run for {@code duration_store_max_age_days} are dropped.
+ * <p>
+ * The store is read once and written at the end of each suite. Writing merges the rows run by this suite into the
+ * store as it is on disk then, so that suites sharing it, e.g. the shards of a suite on one machine, keep each other's
+ * rows.
+ */
+@Log4j2
+public final class DurationStore {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final double LATEST_RUN_WEIGHT = 0.5;
+
+    private static final DurationStore INSTANCE = new DurationStore(
+            ConfigReaderUtil.getConfig("duration_store_file", ""),
+            ConfigReaderUtil.getIntConfig("duration_store_max_age_days", 30));
+
+    private final Path file;
+    private final long maxAgeMillis;
+    private final Map<String, Entry> entries;
+    private final Set<String> updatedKeys = ConcurrentHashMap.newKeySet();
+
+    private DurationStore(String file, int maxAgeDays) {
+        this.file = StringUtils.isBlank(file) ? null : Paths.get(file.trim());
+        this.maxAgeMillis = TimeUnit.DAYS.toMillis(maxAgeDays);
+        this.entries = new ConcurrentHashMap<>(read());
+    }
+
+    public static DurationStore getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Returns the recorded duration and status of the row, or null when it has not run with this content.
+     */
+    public Entry get(String id, String contentHash) {
+        return entries.get(key(id, contentHash));
+    }
+
+    public void record(String id, String contentHash, long durationMillis, String status) {
+        if (!isEnabled()) {
+            return;
+        }
+        String key = key(id, contentHash);
+        entries.compute(key, (k, entry) -> entry == null
+                ? new Entry(durationMillis, 1, status, System.currentTimeMillis())
+                : new Entry(LATEST_RUN_WEIGHT * durationMillis + (1 - LATEST_RUN_WEIGHT) * entry.durationMillis,
+                entry.runs + 1, status, System.currentTimeMillis()));
+        updatedKeys.add(key);
+    }
+
+    /**
+     * Writes the rows recorded since the last save into the store, through a temporary file so that a concurrent
+     * suite never reads it half written. A failed write only costs the next run its predictions.
+     */
+    public synchronized void save() {
+        if (!isEnabled() || updatedKeys.isEmpty()) {
+            return;
+        }
+        Map<String, Entry> merged = read();
+        updatedKeys.forEach(key -> merged.put(key, entries.get(key)));
+        updatedKeys.clear();
+        ObjectNode rows = OBJECT_MAPPER.createObjectNode();
+        merged.forEach((key, entry) -> {
+            ObjectNode row = rows.putObject(key);
+            row.put("durationMs", entry.durationMillis);
+            row.put("runs", entry.runs);
+            row.put("lastStatus", entry.lastStatus);
+            row.put("updated", entry.updatedMillis);
+        });
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            OBJECT_MAPPER.writeValue(tempFile.toFile(), OBJECT_MAPPER.createObjectNode().set("rows", rows));
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Durations of {} rows written to {}", merged.size(), file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to write durations to {}", file, e);
+        }
+    }
+
+    /**
+     * Reads the rows of the store that are recent enough to keep.
+     */
+    private Map<String, Entry> read() {
+        Map<String, Entry> rows = new ConcurrentHashMap<>();
+        if (file == null || !Files.exists(file)) {
+            return rows;
+        }
+        long oldest = System.currentTimeMillis() - maxAgeMillis;
+        try {
+            for (Iterator<Map.Entry<String, JsonNode>> it = OBJECT_MAPPER.readTree(file.toFile()).path("rows").fields();
+                 it.hasNext(); ) {
+                Map.Entry<String, JsonNode> row = it.next();
+                long updated = row.getValue().path("updated").asLong();
+                if (updated >= oldest) {
+                    rows.put(row.getKey(), new Entry(row.getValue().path("durationMs").asDouble(),
+                            row.getValue().path("runs").asInt(), row.getValue().path("lastStatus").asText(),
+                            updated));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Unable to read durations from {}, starting over", file, e);
+        }
+        return rows;
+    }
+
+    private static String key(String id, String contentHash) {
+        return id + '#' + contentHash;
+    }
+
+    /**
+     * The recorded duration and latest status of a row.
+     */
+    @Getter
+    public static final class Entry {
+        private final double durationMillis;
+        private final int runs;
+        private final String lastStatus;
+        private final long updatedMillis;
+
+        private Entry(double durationMillis, int runs, String lastStatus, long updatedMillis) {
+            this.durationMillis = durationMillis;
+            this.runs = runs;
+            this.lastStatus = lastStatus;
+            this.updatedMillis = updatedMillis;
+        }
+    }
+}
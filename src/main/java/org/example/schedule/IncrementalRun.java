@@ -0,0 +1,85 @@
+package org.example.schedule;
+
+import lombok.extern.log4j.Log4j2;
+import org.example.chain.DependencyGraph;
+import org.example.databean.TestData;
+import org.example.util.ConfigReaderUtil;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * With {@code incremental=true}, runs only the rows that are new, changed or did not pass last time, and reports the
+ * others as cached passes without sending them. A row passed before when the {@link DurationStore} holds a pass of its
+ * id and content hash; with {@code incremental_ttl_hours} above 0, a pass older than that runs again, so that every
+ * row runs at least once per period. Rows chained through their {@code depends_on} column run together or not at all,
+ * as a row needs the values extracted by its dependencies and its dependents the values it extracts.
+ */
+@Log4j2
+public final class IncrementalRun {
+
+    private IncrementalRun() {
+    }
+
+    /**
+     * Marks the rows that need not run as cached, keeping their order. Rows are only read up front in incremental
+     * mode.
+     *
+     * @param rows the id and test data of every row, as given by the data provider
+     */
+    public static Iterator<Object[]> mark(Iterator<Object[]> rows) {
+        if (!Boolean.parseBoolean(ConfigReaderUtil.getConfig("incremental", "false"))) {
+            return rows;
+        }
+        DurationStore store = DurationStore.getInstance();
+        if (!store.isEnabled()) {
+            log.warn("Incremental runs need duration_store_file to remember the passes, running every row");
+            return rows;
+        }
+        long ttlMillis = TimeUnit.HOURS.toMillis(ConfigReaderUtil.getIntConfig("incremental_ttl_hours", 0));
+        long now = System.currentTimeMillis();
+
+        List<Object[]> allRows = new ArrayList<>();
+        rows.forEachRemaining(allRows::add);
+        List<TestData> testData = new ArrayList<>(allRows.size());
+        allRows.forEach(row -> testData.add((TestData) row[1]));
+        List<String> groupKeys = DependencyGraph.groupKeys(testData);
+        Set<String> groupsToRun = new HashSet<>();
+        int changed = 0;
+        int failed = 0;
+        int expired = 0;
+        for (int i = 0; i < allRows.size(); i++) {
+            DurationStore.Entry entry = store.get(testData.get(i).getId(), testData.get(i).getContentHash());
+            if (entry == null) {
+                changed++;
+            } else if (!"PASS".equals(entry.getLastStatus())) {
+                failed++;
+            } else if (ttlMillis > 0 && now - entry.getUpdatedMillis() > ttlMillis) {
+                expired++;
+            } else {
+                continue;
+            }
+            groupsToRun.add(groupKeys.get(i));
+        }
+
+        List<Object[]> markedRows = new ArrayList<>(allRows.size());
+        int cached = 0;
+        for (int i = 0; i < allRows.size(); i++) {
+            Object[] row = allRows.get(i);
+            if (!groupsToRun.contains(groupKeys.get(i))) {
+                row = row.clone();
+                row[1] = testData.get(i).toBuilder().cached(true).build();
+                cached++;
+            }
+            markedRows.add(row);
+        }
+        log.info("Incremental run: running {} of {} rows ({} new or changed, {} not passed last time, {} expired, {} " +
+                        "chained to those), {} cached passes", allRows.size() - cached, allRows.size(), changed, failed,
+                expired, allRows.size() - cached - changed - failed - expired, cached);
+        return markedRows.iterator();
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.shard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.example.chain.DependencyGraph;
+import org.example.databean.TestData;
+import org.example.exception.ValidationException;
+import org.example.util.ConfigReaderUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The share of the rows run by this JVM when a suite is split across {@code shard.count} JVMs or machines, this one
+ * being number {@code shard.index}, starting at 0.
+ * <p>
+ * Every shard reads all the rows and keeps its own, so the shards need no coordination. Rows chained through their
+ * {@code depends_on} column form a group that always runs on one shard. A group goes to the shard of a stable hash of
+ * the id of its first row, or, when {@code shard_balance_file} points to the report of an earlier run, the groups are
+ * balanced across the shards by their recorded durations, longest first onto the least loaded shard.
+ */
+@Log4j2
+@Getter
+public final class Shard {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final int index;
+    private final int count;
+
+    private Shard(int index, int count) {
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * @throws ValidationException when the configured index is not within the configured count
+     */
+    public static Shard fromConfig() {
+        int count = ConfigReaderUtil.getIntConfig("shard.count", 1);
+        int index = ConfigReaderUtil.getIntConfig("shard.index", 0);
+        if (count < 1 || index < 0 || index >= count) {
+            String msg = String.format("shard.index %d and shard.count %d in config are invalid", index, count);
+            log.error(msg);
+            throw new ValidationException(msg);
+        }
+        return new Shard(index, count);
+    }
+
+    /**
+     * Returns the name of the file holding the results of this shard, which {@link ShardReportMerger} merges.
+     */
+    public String getResultFileName() {
+        return String.format("shard-%d-of-%d.json", index, count);
+    }
+
+    public boolean isSharded() {
+        return count > 1;
+    }
+
+    /**
+     * Keeps the rows of this shard, in their order. Rows are only read up front when the suite is sharded.
+     *
+     * @param rows the id and test data of every row, as given by the data provider
+     */
+    public Iterator<Object[]> select(Iterator<Object[]> rows) {
+        if (!isSharded()) {
+            return rows;
+        }
+        List<Object[]> allRows = new ArrayList<>();
+        rows.forEachRemaining(allRows::add);
+        List<TestData> testData = new ArrayList<>(allRows.size());
+        allRows.forEach(row -> testData.add((TestData) row[1]));
+        List<String> groupKeys = DependencyGraph.groupKeys(testData);
+        Map<String, Integer> shards = assign(allRows, groupKeys);
+        List<Object[]> selected = new ArrayList<>();
+        for (int i = 0; i < allRows.size(); i++) {
+            if (shards.get(groupKeys.get(i)) == index) {
+                selected.add(allRows.get(i));
+            }
+        }
+        log.info("Shard {} of {} runs {} of {} rows", index, count, selected.size(), allRows.size());
+        return selected.iterator();
+    }
+
+    private Map<String, Integer> assign(List<Object[]> rows, List<String> groupKeys) {
+        Map<String, Integer> shards = new HashMap<>();
+        String balanceFile = ConfigReaderUtil.getConfig("shard_balance_file", "").trim();
+        if (StringUtils.isBlank(balanceFile)) {
+            groupKeys.forEach(key -> shards.computeIfAbsent(key, this::hashShard));
+            return shards;
+        }
+
+        Map<String, Double> durations = readDurations(new File(balanceFile));
+        double defaultMillis = durations.values().stream().mapToDouble(Double::doubleValue).average().orElse(1);
+        Map<String, Double> groupMillis = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            groupMillis.merge(groupKeys.get(i), durations.getOrDefault(id(rows.get(i)), defaultMillis), Double::sum);
+        }
+        List<String> keys = new ArrayList<>(groupMillis.keySet());
+        // Ties are broken by key, so that every shard computes the same assignment
+        keys.sort(Comparator.comparing((String key) -> groupMillis.get(key)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        double[] loads = new double[count];
+        for (String key : keys) {
+            int leastLoaded = 0;
+            for (int shard = 1; shard < count; shard++) {
+                if (loads[shard] < loads[leastLoaded]) {
+                    leastLoaded = shard;
+                }
+            }
+            loads[leastLoaded] += groupMillis.get(key);
+            shards.put(key, leastLoaded);
+        }
+        log.info("Balanced {} row groups across {} shards by the durations in {}, expecting {} ms on this shard",
+                keys.size(), count, balanceFile, String.format("%.1f", loads[index]));
+        return shards;
+    }
+
+    private int hashShard(String id) {
+        CRC32 crc = new CRC32();
+        crc.update(id.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % count);
+    }
+
+    /**
+     * Reads the duration of every row id from a suite report or a shard result file.
+     */
+    private static Map<String, Double> readDurations(File file) {
+        Map<String, Double> durations = new HashMap<>();
+        try {
+            for (JsonNode test : OBJECT_MAPPER.readTree(file).path("tests")) {
+                if (test.hasNonNull("id")) {
+                    durations.merge(test.get("id").asText(), test.path("durationMs").asDouble(), Math::max);
+                }
+            }
+        } catch (IOException e) {
+            String msg = String.format("unable to read the durations of shard_balance_file %s", file);
+            log.error(msg);
+            throw new ValidationException(msg, e);
+        }
+        return durations;
+    }
+
+    private static String id(Object[] row) {
+        return String.valueOf(row[0]);
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.shard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.log4j.Log4j2;
+import org.example.exception.ValidationException;
+import org.example.listener.Reports;
+import org.example.util.ConfigReaderUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Merges the result files the shards of a suite wrote to {@code shard_result_dir} into the report of the whole suite,
+ * {@code shard_report_file}, once every shard has finished:
+ * <pre>
+ * $ mvn -q compile exec:java -Dexec.mainClass=org.example.shard.ShardReportMerger
+ * </pre>
+ * Fails when the results of a shard are missing, or when the directory holds the results of several shard counts.
+ */
+@Log4j2
+public final class ShardReportMerger {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String[] STATUSES = {"PASS", "FAIL", "SKIPPED"};
+
+    private ShardReportMerger() {}
+
+    public static void main(String[] args) {
+        File resultDir = new File(args.length > 0 ? args[0]
+                : ConfigReaderUtil.getConfig("shard_result_dir", "target/shard-results"));
+        File reportFile = new File(args.length > 1 ? args[1]
+                : ConfigReaderUtil.getConfig("shard_report_file", "target/suite-report.json"));
+        merge(resultDir, reportFile);
+    }
+
+    /**
+     * Merges the shard results of the directory into the report file.
+     *
+     * @return the merged report
+     */
+    public static ObjectNode merge(File resultDir, File reportFile) {
+        Map<Integer, JsonNode> shards = readShards(resultDir);
+        int shardCount = shards.values().iterator().next().path("shardCount").asInt();
+
+        ObjectNode report = OBJECT_MAPPER.createObjectNode();
+        report.put("suite", shards.values().iterator().next().path("suite").asText());
+        report.put("shardCount", shardCount);
+        ObjectNode totals = report.putObject("totals");
+        Arrays.stream(STATUSES).forEach(status -> totals.put(status, 0));
+        ArrayNode shardsJson = report.putArray("shards");
+        ArrayNode testsJson = report.putArray("tests");
+        long elapsedMillis = 0;
+        for (Map.Entry<Integer, JsonNode> shard : shards.entrySet()) {
+            ObjectNode shardJson = shardsJson.addObject();
+            shardJson.put("index", shard.getKey());
+            shardJson.put("elapsedMs", shard.getValue().path("elapsedMs").asLong());
+            shardJson.put("tests", shard.getValue().path("tests").size());
+            Arrays.stream(STATUSES).forEach(status -> shardJson.put(status, 0));
+            for (JsonNode test : shard.getValue().path("tests")) {
+                String status = test.path("status").asText();
+                shardJson.put(status, shardJson.path(status).asInt() + 1);
+                totals.put(status, totals.path(status).asInt() + 1);
+                ObjectNode testJson = testsJson.addObject();
+                testJson.put("shard", shard.getKey());
+                testJson.setAll((ObjectNode) test);
+            }
+            elapsedMillis = Math.max(elapsedMillis, shard.getValue().path("elapsedMs").asLong());
+        }
+        totals.put("tests", testsJson.size());
+        // The suite took as long as its slowest shard
+        report.put("elapsedMs", elapsedMillis);
+
+        log.info(String.format("%-8s %8s %8s %8s %8s %12s", "shard", "tests", "pass", "fail", "skipped",
+                "elapsed ms"));
+        for (JsonNode shard : shardsJson) {
+            logLine(shard.path("index").asText(), shard, shard.path("elapsedMs").asLong());
+        }
+        logLine("total", totals, elapsedMillis);
+        Reports.writeReport(reportFile, report);
+        log.info("Suite report of {} shards written to {}", shardCount, reportFile.getAbsolutePath());
+        return report;
+    }
+
+    private static Map<Integer, JsonNode> readShards(File resultDir) {
+        File[] files = resultDir.listFiles((dir, name) -> name.matches("shard-\\d+-of-\\d+\\.json"));
+        if (files == null || files.length == 0) {
+            logAndThrowValidationException(String.format("no shard results found in %s", resultDir));
+        }
+        Arrays.sort(files, Comparator.comparing(File::getName));
+        Map<Integer, JsonNode> shards = new TreeMap<>();
+        int shardCount = -1;
+        for (File file : files) {
+            JsonNode shard;
+            try {
+                shard = OBJECT_MAPPER.readTree(file);
+            } catch (IOException e) {
+                log.error("Unable to read shard results {}", file);
+                throw new RuntimeException(e);
+            }
+            int count = shard.path("shardCount").asInt();
+            if (shardCount >= 0 && count != shardCount) {
+                logAndThrowValidationException(String.format("%s holds the results of both %d and %d shards",
+                        resultDir, shardCount, count));
+            }
+            shardCount = count;
+            shards.put(shard.path("shardIndex").asInt(), shard);
+        }
+        for (int index = 0; index < shardCount; index++) {
+            if (!shards.containsKey(index)) {
+                logAndThrowValidationException(String.format("results of shard %d of %d are missing in %s", index,
+                        shardCount, resultDir));
+            }
+        }
+        return shards;
+    }
+
+    private static void logLine(String name, JsonNode counts, long elapsedMillis) {
+        log.info(String.format("%-8s %8d %8d %8d %8d %12d", name, counts.path("tests").asInt(),
+                counts.path("PASS").asInt(), counts.path("FAIL").asInt(), counts.path("SKIPPED").asInt(),
+                elapsedMillis));
+    }
+
+    private static void logAndThrowValidationException(String msg) {
+        log.error(msg);
+        throw new ValidationException(msg);
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.template;
+
+import lombok.Getter;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * The request of a row, with the {@link Template placeholders} of its api path, params, headers and request body
+ * compiled once, so that every request rendered from the row is a variant of it. The url is built once with a marker
+ * in place of each placeholder and kept as a template of its encoded parts; rendering it only encodes the values of
+ * its placeholders.
+ * <p>
+ * A row without placeholders renders the same request every time, built once when the row is compiled.
+ */
+public final class RequestTemplate {
+
+    private final HttpMethod httpMethod;
+    private final Template url;
+    private final Map<String, List<Template>> headers;
+    private final HttpHeaders constantHeaders;
+    private final Template requestBody;
+    private final RenderedRequest constantRequest;
+    private final AtomicLong seq = new AtomicLong();
+
+    private RequestTemplate(HttpMethod httpMethod, Template url, Map<String, List<Template>> headers,
+                            HttpHeaders constantHeaders, Template requestBody, RenderedRequest constantRequest) {
+        this.httpMethod = httpMethod;
+        this.url = url;
+        this.headers = headers;
+        this.constantHeaders = constantHeaders;
+        this.requestBody = requestBody;
+        this.constantRequest = constantRequest;
+    }
+
+    /**
+     * Compiles the request of a row.
+     *
+     * @param urlBuilder builds and encodes the url of the row from its api path and params
+     * @throws org.example.exception.ValidationException when a placeholder is unknown or invalid
+     */
+    public static RequestTemplate compile(HttpMethod httpMethod, String apiPath, Map<String, String> params,
+                                          HttpHeaders httpHeaders, String requestBody,
+                                          BiFunction<String, Map<String, String>, String> urlBuilder) {
+        List<Template.Placeholder> urlPlaceholders = new ArrayList<>();
+        String markedApiPath = Template.compile(apiPath).toMarked(urlPlaceholders);
+        Map<String, String> markedParams = new LinkedHashMap<>();
+        params.forEach((name, value) -> markedParams.put(name, Template.compile(value).toMarked(urlPlaceholders)));
+        Template url = Template.fromMarked(urlBuilder.apply(markedApiPath, markedParams), urlPlaceholders,
+                value -> UriUtils.encodePath(value, StandardCharsets.UTF_8),
+                value -> UriUtils.encodeQueryParam(value, StandardCharsets.UTF_8));
+
+        Map<String, List<Template>> headers = new LinkedHashMap<>();
+        boolean constantHeaders = true;
+        for (Map.Entry<String, List<String>> header : httpHeaders.entrySet()) {
+            List<Template> values = new ArrayList<>();
+            for (String value : header.getValue()) {
+                Template template = Template.compile(value);
+                constantHeaders &= template.isConstant();
+                values.add(template);
+            }
+            headers.put(header.getKey(), values);
+        }
+        Template body = Template.compile(requestBody);
+
+        RenderedRequest constantRequest = url.isConstant() && constantHeaders && body.isConstant()
+                ? new RenderedRequest(0, url.render(0), buildRequest(httpMethod, httpHeaders, body.render(0)))
+                : null;
+        return new RequestTemplate(httpMethod, url, constantHeaders ? null : headers,
+                constantHeaders ? httpHeaders : null, body, constantRequest);
+    }
+
+    /**
+     * Renders the next variant of the request, numbering it with the next sequence number of the row.
+     */
+    public RenderedRequest render() {
+        if (constantRequest != null) {
+            return constantRequest;
+        }
+        long nextSeq = seq.incrementAndGet();
+        HttpHeaders renderedHeaders = constantHeaders;
+        if (renderedHeaders == null) {
+            HttpHeaders httpHeaders = new HttpHeaders();
+            headers.forEach((name, values) -> values.forEach(value -> httpHeaders.add(name, value.render(nextSeq))));
+            renderedHeaders = HttpHeaders.readOnlyHttpHeaders(httpHeaders);
+        }
+        return new RenderedRequest(nextSeq, url.render(nextSeq),
+                buildRequest(httpMethod, renderedHeaders, requestBody.render(nextSeq)));
+    }
+
+    public boolean isConstant() {
+        return constantRequest != null;
+    }
+
+    private static HttpEntity<String> buildRequest(HttpMethod httpMethod, HttpHeaders httpHeaders,
+                                                   String requestBody) {
+        return (httpMethod == HttpMethod.GET)
+                ? new HttpEntity<>(httpHeaders)
+                : new HttpEntity<>(requestBody, httpHeaders);
+    }
+
+    /**
+     * A request rendered from a {@link RequestTemplate}, ready to be sent.
+     */
+    @Getter
+    public static class RenderedRequest {
+        // 0 for the single request of a row without placeholders
+        private final long seq;
+        private final String url;
+        private final HttpEntity<String> request;
+
+        private RenderedRequest(long seq, String url, HttpEntity<String> request) {
+            this.seq = seq;
+            this.url = url;
+            this.request = request;
+        }
+    }
+}
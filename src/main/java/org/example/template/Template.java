@@ -0,0 +1,290 @@
+package org.example.template;
+
+import lombok.extern.log4j.Log4j2;
+import org.example.chain.Variables;
+import org.example.exception.ValidationException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.UnaryOperator;
+
+/**
+ * A text with placeholders, compiled once into a list of literal and placeholder segments so that rendering it is a
+ * plain concatenation. The supported placeholders are:
+ * <ul>
+ *     <li>{@code ${seq}}: the sequence number of the rendered request, starting at 1</li>
+ *     <li>{@code ${uuid}}: a random UUID</li>
+ *     <li>{@code ${randInt:min:max}}: a random integer between min and max, both inclusive</li>
+ *     <li>{@code ${csv:file}}: the first column of the lines of the file, in turn by sequence number</li>
+ *     <li>{@code ${env:NAME}}: the environment variable, resolved once when the template is compiled</li>
+ *     <li>{@code ${var:name}}: the {@link Variables variable} extracted from the response of an earlier row</li>
+ * </ul>
+ * {@code $${} is written as a literal {@code ${}.
+ */
+@Log4j2
+public final class Template {
+
+    private static final String MARKER_PREFIX = "__tpl";
+    private static final String MARKER_SUFFIX = "__";
+    // The values of every csv file, read once however many templates use them
+    private static final Map<String, List<String>> CSV_VALUES = new ConcurrentHashMap<>();
+
+    // Every part is either a literal String or a Placeholder
+    private final Object[] parts;
+    private final int literalLength;
+
+    private Template(List<Object> parts) {
+        this.parts = parts.toArray();
+        int length = 0;
+        for (Object part : this.parts) {
+            if (part instanceof String) {
+                length += ((String) part).length();
+            }
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compiles the text, which may be null.
+     *
+     * @throws ValidationException when a placeholder is unknown or invalid
+     */
+    public static Template compile(String text) {
+        List<Object> parts = new ArrayList<>();
+        if (text == null) {
+            parts.add(null);
+            return new Template(parts);
+        }
+        StringBuilder literal = new StringBuilder();
+        int position = 0;
+        while (position < text.length()) {
+            int start = text.indexOf("${", position);
+            if (start < 0) {
+                literal.append(text, position, text.length());
+                break;
+            }
+            if (start > 0 && text.charAt(start - 1) == '$') {
+                literal.append(text, position, start - 1).append("${");
+                position = start + 2;
+                continue;
+            }
+            int end = text.indexOf('}', start);
+            if (end < 0) {
+                logAndThrowValidationException(String.format("placeholder at %d of '%s' is not closed", start, text));
+            }
+            literal.append(text, position, start);
+            Placeholder placeholder = compilePlaceholder(text.substring(start + 2, end));
+            if (placeholder instanceof Constant) {
+                literal.append(((Constant) placeholder).value);
+            } else {
+                addLiteral(parts, literal);
+                parts.add(placeholder);
+            }
+            position = end + 1;
+        }
+        addLiteral(parts, literal);
+        return new Template(parts);
+    }
+
+    public boolean isConstant() {
+        return parts.length == 1 && !(parts[0] instanceof Placeholder);
+    }
+
+    /**
+     * Renders the template for the request with the given sequence number.
+     */
+    public String render(long seq) {
+        if (parts.length == 1 && !(parts[0] instanceof Placeholder)) {
+            return (String) parts[0];
+        }
+        StringBuilder rendered = new StringBuilder(literalLength + 16 * parts.length);
+        for (Object part : parts) {
+            if (part instanceof Placeholder) {
+                rendered.append(((Placeholder) part).render(seq));
+            } else {
+                rendered.append((String) part);
+            }
+        }
+        return rendered.toString();
+    }
+
+    /**
+     * Writes the template with every placeholder replaced by a marker of its index in the given list, to which the
+     * placeholder is added. The markers are left as they are by url encoding, so that a url built from the marked text
+     * can be turned back into a template with {@link #fromMarked}.
+     */
+    String toMarked(List<Placeholder> placeholders) {
+        if (parts.length == 1 && parts[0] == null) {
+            return null;
+        }
+        StringBuilder marked = new StringBuilder();
+        for (Object part : parts) {
+            if (part instanceof Placeholder) {
+                marked.append(MARKER_PREFIX).append(placeholders.size()).append(MARKER_SUFFIX);
+                placeholders.add((Placeholder) part);
+            } else if (part != null) {
+                marked.append((String) part);
+            }
+        }
+        return marked.toString();
+    }
+
+    /**
+     * Turns a url built from marked templates back into a template, encoding the rendered value of each placeholder
+     * the way its part of the url is encoded.
+     *
+     * @param markedUrl the url, with the literal parts of its templates already encoded
+     * @param placeholders the placeholders the markers of the url refer to
+     * @param pathEncoder encodes the values of the placeholders in the path
+     * @param queryEncoder encodes the values of the placeholders in the query
+     */
+    static Template fromMarked(String markedUrl, List<Placeholder> placeholders, UnaryOperator<String> pathEncoder,
+                               UnaryOperator<String> queryEncoder) {
+        List<Object> parts = new ArrayList<>();
+        int queryStart = markedUrl.indexOf('?') < 0 ? markedUrl.length() : markedUrl.indexOf('?');
+        int position = 0;
+        int found = 0;
+        int start;
+        while ((start = markedUrl.indexOf(MARKER_PREFIX, position)) >= 0) {
+            int end = markedUrl.indexOf(MARKER_SUFFIX, start + MARKER_PREFIX.length());
+            int index = Integer.parseInt(markedUrl.substring(start + MARKER_PREFIX.length(), end));
+            Placeholder placeholder = placeholders.get(index);
+            UnaryOperator<String> encoder = start < queryStart ? pathEncoder : queryEncoder;
+            if (start > position) {
+                parts.add(markedUrl.substring(position, start));
+            }
+            parts.add((Placeholder) seq -> encoder.apply(placeholder.render(seq)));
+            position = end + MARKER_SUFFIX.length();
+            found++;
+        }
+        if (found != placeholders.size()) {
+            logAndThrowValidationException(String.format("unable to template url %s", markedUrl));
+        }
+        if (position < markedUrl.length()) {
+            parts.add(markedUrl.substring(position));
+        }
+        return new Template(parts);
+    }
+
+    private static Placeholder compilePlaceholder(String expression) {
+        String[] tokens = expression.split(":", -1);
+        switch (tokens[0]) {
+            case "seq":
+                return Long::toString;
+            case "uuid":
+                return seq -> randomUuid();
+            case "randInt":
+                if (tokens.length == 3) {
+                    int min = parseInt(tokens[1], expression);
+                    int max = parseInt(tokens[2], expression);
+                    if (min <= max) {
+                        return seq -> Long.toString(ThreadLocalRandom.current().nextLong(min, (long) max + 1));
+                    }
+                }
+                break;
+            case "csv":
+                if (tokens.length == 2) {
+                    List<String> values = CSV_VALUES.computeIfAbsent(tokens[1], Template::readCsv);
+                    return seq -> values.get((int) ((seq - 1) % values.size()));
+                }
+                break;
+            case "var":
+                if (tokens.length == 2) {
+                    String name = tokens[1];
+                    return seq -> Variables.get(name);
+                }
+                break;
+            case "env":
+                if (tokens.length == 2) {
+                    String value = System.getenv(tokens[1]);
+                    if (value == null) {
+                        logAndThrowValidationException(String.format("environment variable %s of placeholder " +
+                                "${%s} is not set", tokens[1], expression));
+                    }
+                    return new Constant(value);
+                }
+                break;
+            default:
+        }
+        logAndThrowValidationException(String.format("placeholder ${%s} is invalid", expression));
+        return null; // This line will never be reached
+    }
+
+    private static int parseInt(String s, String expression) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            logAndThrowValidationException(String.format("unable to parse int %s of placeholder ${%s}", s,
+                    expression));
+            return -1; // This line will never be reached
+        }
+    }
+
+    private static List<String> readCsv(String file) {
+        List<String> values = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+                int comma = line.indexOf(',');
+                String value = (comma < 0 ? line : line.substring(0, comma)).trim();
+                if (!value.isEmpty()) {
+                    values.add(value);
+                }
+            }
+        } catch (IOException e) {
+            logAndThrowValidationException(String.format("unable to read csv %s of placeholder", file));
+        }
+        if (values.isEmpty()) {
+            logAndThrowValidationException(String.format("csv %s of placeholder has no values", file));
+        }
+        return List.copyOf(values);
+    }
+
+    /**
+     * A version 4 UUID from the thread's random generator, which unlike {@link UUID#randomUUID()} never contends on a
+     * shared secure random.
+     */
+    private static String randomUuid() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+
+    private static void addLiteral(List<Object> parts, StringBuilder literal) {
+        if (literal.length() > 0 || parts.isEmpty()) {
+            parts.add(literal.toString());
+            literal.setLength(0);
+        }
+    }
+
+    private static void logAndThrowValidationException(String msg) {
+        log.error(msg);
+        throw new ValidationException(msg);
+    }
+
+    @FunctionalInterface
+    interface Placeholder {
+        String render(long seq);
+    }
+
+    private static final class Constant implements Placeholder {
+        private final String value;
+
+        private Constant(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String render(long seq) {
+            return value;
+        }
+    }
+}
@@ -7,6 +7,10 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Properties;
 
+/**
+ * Reads the properties of {@code config.properties}. A property can be overridden for a run with a system property of
+ * the same name, e.g. {@code -Dsheet_name=Smoke}.
+ */
 @Log4j2
 public final class ConfigReaderUtil {
 
@@ -31,7 +35,7 @@ public final class ConfigReaderUtil {
     }
 
     public static String getConfig(String key) {
-        String value = properties.getProperty(key);
+        String value = System.getProperty(key, properties.getProperty(key));
         if (value == null) {
             String msg = String.format("property %s not found in %s", key, CONFIG_FILE_PATH);
             log.error(msg);
@@ -40,4 +44,33 @@ public final class ConfigReaderUtil {
         return value;
     }
 
+    /**
+     * Returns the value of an optional property, falling back to the given default when the key is absent.
+     *
+     * @param key the property key
+     * @param defaultValue the value to return when the key is not configured
+     * @return the configured value or the default
+     */
+    public static String getConfig(String key, String defaultValue) {
+        return System.getProperty(key, properties.getProperty(key, defaultValue));
+    }
+
+    /**
+     * Returns the value of an optional integer property, falling back to the given default when the key is absent.
+     *
+     * @param key the property key
+     * @param defaultValue the value to return when the key is not configured
+     * @return the configured value or the default
+     */
+    public static int getIntConfig(String key, int defaultValue) {
+        String value = getConfig(key, String.valueOf(defaultValue)).trim();
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            String msg = String.format("property %s in %s is not an integer: %s", key, CONFIG_FILE_PATH, value);
+            log.error(msg);
+            throw new ValidationException(msg);
+        }
+    }
+
 }
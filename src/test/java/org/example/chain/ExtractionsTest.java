@@ -0,0 +1,53 @@
+package org.example.chain;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+
+/**
+ * Checks the conversion of the JSONPaths of {@link Extractions} into JSON Pointers.
+ */
+public class ExtractionsTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @DataProvider
+    public Object[][] paths() {
+        return new Object[][]{
+                {"$", ""},
+                {"$.id", "/id"},
+                {"$.auth.tokens[0]", "/auth/tokens/0"},
+                {"$[1][ 2 ]", "/1/2"},
+                {"$.data[0]['first name']", "/data/0/first name"},
+                {"$[\"a.b\"][\"c[0]\"]", "/a.b/c[0]"},
+                {"$['a/b'].c~d", "/a~1b/c~0d"},
+        };
+    }
+
+    @Test(dataProvider = "paths")
+    public void convertsPath(String path, String pointer) {
+        assertEquals(Extractions.toJsonPointer(path), pointer);
+    }
+
+    @DataProvider
+    public Object[][] invalidPaths() {
+        return new Object[][]{{"$id"}, {"$."}, {"$.a..b"}, {"$.a["}, {"$[x]"}, {"$[-1]"}, {"$['a'"}, {"$['a'b]"}, {"$['']"}};
+    }
+
+    @Test(dataProvider = "invalidPaths")
+    public void rejectsPath(String path) {
+        assertThrows(IllegalArgumentException.class, () -> Extractions.toJsonPointer(path));
+    }
+
+    @Test
+    public void pointerFindsTheValueThePathNames() throws Exception {
+        JsonNode body = OBJECT_MAPPER.readTree("{\"data\": [{\"first name\": \"Ann\", \"a/b\": {\"c~d\": 7}}]}");
+        assertEquals(body.at(JsonPointer.compile(Extractions.toJsonPointer("$.data[0]['first name']"))).asText(), "Ann");
+        assertEquals(body.at(JsonPointer.compile(Extractions.toJsonPointer("$.data[0]['a/b']['c~d']"))).asInt(), 7);
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.http;
+
+import org.example.exception.ValidationException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+
+/**
+ * Checks the arithmetic of the {@code aimd} limits of {@link EndpointLimiter}: the additive increase per round of
+ * requests answered in time, the multiplicative decrease on overload at most once per round, and their bounds. The
+ * latency tolerance is set high enough that no request counts as slow.
+ */
+public class EndpointLimiterTest {
+
+    private static final double DELTA = 1e-9;
+    private static final List<String> KEYS = List.of("limit_mode", "limit_aimd_initial", "limit_aimd_min",
+            "limit_max_concurrency", "limit_aimd_backoff", "limit_aimd_latency_tolerance");
+
+    @BeforeMethod
+    public void useAimd() {
+        System.setProperty("limit_mode", "aimd");
+        System.setProperty("limit_aimd_initial", "4");
+        System.setProperty("limit_aimd_min", "1");
+        System.setProperty("limit_max_concurrency", "8");
+        System.setProperty("limit_aimd_backoff", "0.5");
+        System.setProperty("limit_aimd_latency_tolerance", "1e12");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restoreConfig() {
+        KEYS.forEach(System::clearProperty);
+        EndpointLimiter.reset();
+    }
+
+    @Test
+    public void limitGrowsByOneOverItselfPerRequestWhileHalfInUse() {
+        EndpointLimiter limiter = EndpointLimiter.forEndpoint("increase");
+        List<EndpointLimiter.Permit> permits = acquire(limiter, 4);
+        permits.forEach(permit -> permit.release(200));
+        // The first two releases leave 3 and 2 in flight, at least half of the limit; the last two do not
+        assertEquals(limiter.getLimit(), 4 + 1 / 4.0 + 1 / 4.25, DELTA);
+        assertEquals(limiter.getDecreases(), 0);
+    }
+
+    @Test
+    public void idleLimitDoesNotGrow() {
+        EndpointLimiter limiter = EndpointLimiter.forEndpoint("idle");
+        for (int i = 0; i < 10; i++) {
+            acquire(limiter, 1).get(0).release(200);
+        }
+        assertEquals(limiter.getLimit(), 4, DELTA);
+    }
+
+    @Test
+    public void limitGrowsNoHigherThanTheMaxConcurrency() {
+        System.setProperty("limit_max_concurrency", "5");
+        EndpointLimiter limiter = EndpointLimiter.forEndpoint("max");
+        for (int round = 0; round < 20; round++) {
+            acquire(limiter, (int) limiter.getLimit()).forEach(permit -> permit.release(200));
+        }
+        assertEquals(limiter.getLimit(), 5, DELTA);
+        assertEquals(limiter.getHighestLimit(), 5, DELTA);
+    }
+
+    @Test
+    public void overloadDecreasesTheLimitOncePerRound() {
+        EndpointLimiter limiter = EndpointLimiter.forEndpoint("decrease");
+        List<EndpointLimiter.Permit> round = acquire(limiter, 4);
+        round.get(0).release(503);
+        assertEquals(limiter.getLimit(), 2, DELTA);
+        // Granted before the decrease, so already accounted for by it
+        round.get(1).release(429);
+        round.get(2).release(EndpointLimiter.FAILED);
+        round.get(3).release(EndpointLimiter.FAILED);
+        assertEquals(limiter.getLimit(), 2, DELTA);
+
+        acquire(limiter, 1).get(0).release(429);
+        assertEquals(limiter.getLimit(), 1, DELTA);
+        acquire(limiter, 1).get(0).release(EndpointLimiter.FAILED);
+        assertEquals(limiter.getLimit(), 1, DELTA);
+
+        assertEquals(limiter.getDecreases(), 3);
+        assertEquals(limiter.getOverloaded(), 6);
+        assertEquals(limiter.getLowestLimit(), 1, DELTA);
+        assertEquals(limiter.getHighestLimit(), 4, DELTA);
+    }
+
+    @Test
+    public void releasingTwiceCountsOnce() {
+        EndpointLimiter limiter = EndpointLimiter.forEndpoint("twice");
+        EndpointLimiter.Permit permit = acquire(limiter, 1).get(0);
+        permit.release(503);
+        permit.release(503);
+        assertEquals(limiter.getLimit(), 2, DELTA);
+        assertEquals(limiter.getOverloaded(), 1);
+    }
+
+    @Test
+    public void backoffAndToleranceMustBeInRange() {
+        System.setProperty("limit_aimd_backoff", "1");
+        assertThrows(ValidationException.class, () -> EndpointLimiter.forEndpoint("backoff"));
+        System.setProperty("limit_aimd_backoff", "0.5");
+        System.setProperty("limit_aimd_latency_tolerance", "1");
+        assertThrows(ValidationException.class, () -> EndpointLimiter.forEndpoint("tolerance"));
+    }
+
+    private static List<EndpointLimiter.Permit> acquire(EndpointLimiter limiter, int count) {
+        List<EndpointLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(limiter.acquire().join());
+        }
+        return permits;
+    }
+}
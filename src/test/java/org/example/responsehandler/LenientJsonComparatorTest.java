@@ -0,0 +1,101 @@
+package org.example.responsehandler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Checks that {@link LenientJsonComparator} matches arrays in any order, counts duplicate elements, lets actual
+ * objects have more fields at any depth, and fails values of another type the way JSONAssert's LENIENT mode does.
+ */
+public class LenientJsonComparatorTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    public void simpleValuesMatchOutOfOrder() throws Exception {
+        assertEquals(compare("[1, \"two\", true, null, 2.5]", "[null, 2.5, true, \"two\", 1]"), "");
+    }
+
+    @Test
+    public void objectsMatchOutOfOrderByTheirId() throws Exception {
+        assertEquals(compare("[{\"id\": 1, \"name\": \"a\"}, {\"id\": 2, \"name\": \"b\"}]",
+                "[{\"id\": 2, \"name\": \"b\", \"extra\": 0}, {\"id\": 1, \"name\": \"a\"}]"), "");
+        assertEquals(compare("[{\"id\": 1, \"name\": \"a\"}, {\"id\": 2, \"name\": \"b\"}]",
+                "[{\"id\": 2, \"name\": \"a\"}, {\"id\": 1, \"name\": \"a\"}]"),
+                "[id=2].name\nExpected: b\n     got: a\n");
+    }
+
+    @Test
+    public void objectsWithoutIdMatchOutOfOrder() throws Exception {
+        // Both actual objects match the first expected one, but only the first matches the second expected one
+        assertEquals(compare("[{\"a\": 1}, {\"a\": 1, \"b\": 2}]", "[{\"a\": 1, \"b\": 2}, {\"a\": 1, \"c\": 3}]"), "");
+        assertEquals(compare("[[1, 2], [3]]", "[[3], [2, 1]]"), "");
+    }
+
+    @Test
+    public void duplicateValuesMustOccurAsOftenInTheActualArray() throws Exception {
+        assertEquals(compare("[1, 1, 2]", "[2, 1, 1]"), "");
+        assertEquals(compare("[1, 1, 2]", "[1, 2, 2]"),
+                "[]: Expected 2 occurrence(s) of 1 but got 1 occurrence(s) ; "
+                        + "[]: Expected 1 occurrence(s) of 2 but got 2 occurrence(s)");
+        assertEquals(compare("[1, 1]", "[1, 3]"),
+                "[]: Expected 2 occurrence(s) of 1 but got 1 occurrence(s) ; []\nUnexpected: 3\n");
+    }
+
+    @Test
+    public void duplicateObjectsEachNeedTheirOwnMatch() throws Exception {
+        assertEquals(compare("[{\"a\": 1}, {\"a\": 1}]", "[{\"a\": 1, \"b\": 1}, {\"a\": 1}]"), "");
+        assertEquals(compare("[{\"a\": 1}, {\"a\": 1}]", "[{\"a\": 1, \"b\": 1}, {\"a\": 2}]"),
+                "[1] Could not find match for element {\"a\":1}");
+    }
+
+    @Test
+    public void arraysMustHaveTheSameLength() throws Exception {
+        assertEquals(compare("{\"tags\": [1, 2]}", "{\"tags\": [1, 2, 2]}"), "tags[]: Expected 2 values but got 3");
+    }
+
+    @Test
+    public void nestedObjectsMayHaveMoreFields() throws Exception {
+        assertEquals(compare("{\"user\": {\"address\": {\"city\": \"Gwenborough\"}}}",
+                "{\"id\": 1, \"user\": {\"name\": \"Leanne\", \"address\": {\"city\": \"Gwenborough\", "
+                        + "\"zipcode\": \"92998\"}}}"), "");
+        assertEquals(compare("{\"posts\": [{\"comments\": [{\"email\": \"a@b.c\"}]}]}",
+                "{\"posts\": [{\"id\": 1, \"comments\": [{\"id\": 7, \"email\": \"a@b.c\"}]}]}"), "");
+    }
+
+    @Test
+    public void nestedFailuresNameTheirPath() throws Exception {
+        assertEquals(compare("{\"user\": {\"address\": {\"city\": \"Gwenborough\", \"zipcode\": \"92998\"}}}",
+                "{\"user\": {\"address\": {\"city\": \"McKenziehaven\"}}}"),
+                "user.address.city\nExpected: Gwenborough\n     got: McKenziehaven\n ; "
+                        + "user.address\nExpected: zipcode\n     but none found\n");
+    }
+
+    @Test
+    public void valuesOfAnotherTypeFail() throws Exception {
+        assertEquals(compare("{\"id\": 1}", "{\"id\": \"1\"}"), "id\nExpected: 1\n     got: 1\n");
+        assertEquals(compare("{\"done\": true}", "{\"done\": \"true\"}"), "done\nExpected: true\n     got: true\n");
+        assertEquals(compare("{\"a\": null}", "{\"a\": 0}"), "a\nExpected: null\n     got: 0\n");
+        assertEquals(compare("{\"a\": [1]}", "{\"a\": {\"0\": 1}}"),
+                "a\nExpected: a JSON array\n     got: a JSON object\n");
+        assertEquals(compare("[\"1\"]", "[1]"), "[]\nExpected: 1\n     but none found\n ; []\nUnexpected: 1\n");
+    }
+
+    @Test
+    public void numbersCompareByValue() throws Exception {
+        assertEquals(compare("{\"total\": 1, \"ids\": [2, 3.0]}", "{\"total\": 1.0, \"ids\": [3, 2.0]}"), "");
+    }
+
+    @Test
+    public void failFastStopsAtTheFirstFailure() throws Exception {
+        assertEquals(new LenientJsonComparator(true).compare(OBJECT_MAPPER.readTree("{\"a\": 1, \"b\": 2}"),
+                OBJECT_MAPPER.readTree("{\"a\": 0, \"b\": 0}")), "a\nExpected: 1\n     got: 0\n");
+    }
+
+    private static String compare(String expected, String actual) throws Exception {
+        return new LenientJsonComparator(false).compare(OBJECT_MAPPER.readTree(expected),
+                OBJECT_MAPPER.readTree(actual));
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.responsehandler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Checks that schema validations with {@code schema_generator=pojo} run on a thread pool, through the shared
+ * {@link SchemaCache}, give the same outcomes as serial ones, and leave no working files behind.
+ * <p>
+ * The concurrent validations compile the expected bodies pretty printed, so that they miss the schemas the serial ones
+ * cached, and every body is compiled by several threads at once.
+ */
+public class SchemaValidatorTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 4;
+
+    // Expected body, an actual body matching its schema and one that does not
+    private static final List<List<String>> CASES = List.of(
+            List.of("{\"userId\":1,\"id\":1,\"title\":\"delectus aut autem\",\"completed\":false}",
+                    "{\"userId\":2,\"id\":5,\"title\":\"qui ut\",\"completed\":true}",
+                    "{\"userId\":\"2\",\"id\":5,\"title\":\"qui ut\",\"completed\":true}"),
+            List.of("{\"id\":7,\"name\":\"Kurtis\",\"address\":{\"street\":\"Rex Trail\",\"zipcode\":\"58804\"}}",
+                    "{\"id\":8,\"name\":\"Nicholas\",\"address\":{\"street\":\"Ellsworth\",\"zipcode\":\"45169\"}}",
+                    "{\"id\":8,\"name\":\"Nicholas\",\"address\":[\"Ellsworth\"]}"),
+            List.of("{\"postId\":1,\"comments\":[{\"id\":1,\"email\":\"Eliseo@gardner.biz\"}],\"total\":1.5}",
+                    "{\"postId\":2,\"comments\":[{\"id\":6,\"email\":\"Hayden@althea.biz\"}],\"total\":3.25}",
+                    "{\"postId\":2,\"comments\":[{\"id\":\"six\",\"email\":\"Hayden@althea.biz\"}],\"total\":3.25}"),
+            List.of("{\"albumId\":2,\"url\":\"https://via.placeholder.com/600/771796\",\"tags\":[\"a\",\"b\"]}",
+                    "{\"albumId\":3,\"url\":\"https://via.placeholder.com/600/24f355\",\"tags\":[\"c\"]}",
+                    "{\"albumId\":3,\"url\":false,\"tags\":[\"c\"]}"));
+
+    private final SchemaValidator validator = new SchemaValidator();
+
+    @BeforeClass
+    public void usePojoGenerator() {
+        System.setProperty("schema_generator", "pojo");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void restoreGenerator() {
+        System.clearProperty("schema_generator");
+    }
+
+    @Test
+    public void concurrentValidationsMatchSerialOnes() throws Exception {
+        Set<String> directoriesBefore = workDirectories();
+        List<String> serial = new ArrayList<>();
+        for (List<String> testCase : CASES) {
+            serial.addAll(validate(testCase.get(0), testCase));
+        }
+        for (int i = 0; i < serial.size(); i += 2) {
+            assertTrue(serial.get(i).startsWith("PASS"), "Matching body of case " + i / 2 + ": " + serial.get(i));
+            assertTrue(serial.get(i + 1).startsWith("FAIL"), "Mismatching body of case " + i / 2);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int round = 0; round < ROUNDS; round++) {
+                for (List<String> testCase : CASES) {
+                    String expectedBody = OBJECT_MAPPER.writerWithDefaultPrettyPrinter()
+                            .writeValueAsString(OBJECT_MAPPER.readTree(testCase.get(0)));
+                    futures.add(executor.submit(() -> validate(expectedBody, testCase)));
+                }
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                int testCase = i % CASES.size();
+                assertEquals(futures.get(i).get(2, TimeUnit.MINUTES), serial.subList(2 * testCase, 2 * testCase + 2),
+                        "Outcomes of case " + testCase + " validated concurrently");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Set<String> leftBehind = workDirectories();
+        leftBehind.removeAll(directoriesBefore);
+        assertTrue(leftBehind.isEmpty(), "Working directories left behind: " + leftBehind);
+    }
+
+    /**
+     * Validates the matching and the mismatching actual body of the case, returning how each went.
+     */
+    private List<String> validate(String expectedBody, List<String> testCase) throws Exception {
+        SchemaCache.CachedSchema schema = validator.compileExpectedResponse(expectedBody);
+        List<String> outcomes = new ArrayList<>();
+        for (String actualBody : testCase.subList(1, 3)) {
+            JsonNode actual = OBJECT_MAPPER.readTree(actualBody);
+            try {
+                validator.validateResponse(actual, schema, 200, 200);
+                outcomes.add("PASS " + schema.getSchemaNode());
+            } catch (AssertionError e) {
+                outcomes.add("FAIL " + schema.getSchemaNode() + " " + e.getMessage());
+            }
+        }
+        return outcomes;
+    }
+
+    private static Set<String> workDirectories() {
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles();
+        return files == null ? Set.of() : Stream.of(files)
+                .filter(file -> file.isDirectory() && file.getName().startsWith("schema-pojo"))
+                .map(File::getName)
+                .collect(Collectors.toSet());
+    }
+}